@@ -34,6 +34,14 @@ public interface Surface {
 
     void buildSurface(int x, int z, int height, SurfaceContext ctx);
 
+    /**
+     * Returns false if the surface only reads the column through the context's accessors (getValue,
+     * getGradient, is etc), in which case the context's cell may not be set
+     */
+    default boolean usesCell() {
+        return true;
+    }
+
     default void fill(int x, int z, int start, int end, SurfaceContext ctx, IChunk chunk, BlockState state) {
         if (start < end) {
             for (int y = start; y < end; y++) {
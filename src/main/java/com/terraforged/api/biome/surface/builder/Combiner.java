@@ -38,6 +38,11 @@ public class Combiner implements Surface {
         this.second = second;
     }
 
+    @Override
+    public boolean usesCell() {
+        return first.usesCell() || second.usesCell();
+    }
+
     @Override
     public void buildSurface(int x, int z, int height, SurfaceContext ctx) {
         first.buildSurface(x, z, height, ctx);
@@ -46,6 +46,11 @@ public class Delegate implements Surface {
         this.surfaceBuilder = surfaceBuilder;
     }
 
+    @Override
+    public boolean usesCell() {
+        return false;
+    }
+
     @Override
     public void buildSurface(int x, int z, int height, SurfaceContext context) {
         surfaceBuilder.setSeed(context.seed);
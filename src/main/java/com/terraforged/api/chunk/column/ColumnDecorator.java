@@ -39,6 +39,14 @@ public interface ColumnDecorator {
 
     void decorate(IChunk chunk, DecoratorContext context, int x, int y, int z);
 
+    /**
+     * Returns false if the decorator only reads the column through the context's accessors (getValue,
+     * getGradient, is etc), in which case the context's cell may not be set
+     */
+    default boolean usesCell() {
+        return true;
+    }
+
     default void decorate(ChunkSurfaceBuffer buffer, SurfaceContext context, int x, int y, int z) {
         decorate(buffer.getDelegate(), context, x, y, z);
     }
@@ -28,6 +28,7 @@ package com.terraforged.api.chunk.column;
 import com.terraforged.api.chunk.ChunkContext;
 import com.terraforged.core.cell.Cell;
 import com.terraforged.core.concurrent.Resource;
+import com.terraforged.mod.chunk.util.ChunkSnapshot;
 import com.terraforged.world.climate.Climate;
 import com.terraforged.world.geology.DepthBuffer;
 import com.terraforged.world.heightmap.Levels;
@@ -46,6 +47,8 @@ public class DecoratorContext extends ChunkContext implements AutoCloseable {
 
     public Biome biome;
     public Cell cell;
+    public ChunkSnapshot snapshot;
+    public int index;
 
     public DecoratorContext(IChunk chunk, Levels levels, Terrains terrain, Climate climate) {
         this(chunk, levels, terrain, climate, true);
@@ -59,6 +62,52 @@ public class DecoratorContext extends ChunkContext implements AutoCloseable {
         this.depthBuffer = depthBuffer ? DepthBuffer.get() : null;
     }
 
+    /**
+     * Points the context at the column of the snapshot at the given index without setting its cell, for
+     * columns whose decorators & surfaces all read them through the accessors below (see usesCell)
+     */
+    public void setColumn(ChunkSnapshot snapshot, int index) {
+        setColumn(snapshot, index, null);
+    }
+
+    /**
+     * Points the context at the column of the snapshot at the given index, with the column's cell for
+     * decorators & surfaces that read it directly
+     */
+    public void setColumn(ChunkSnapshot snapshot, int index, Cell cell) {
+        this.snapshot = snapshot;
+        this.index = index;
+        this.cell = cell;
+    }
+
+    // the column accessors below read from the snapshot when one has been set & fall back to the cell otherwise
+
+    public float getValue() {
+        return snapshot != null ? snapshot.value[index] : cell.value;
+    }
+
+    public float getGradient() {
+        return snapshot != null ? snapshot.gradient[index] : cell.gradient;
+    }
+
+    public float getSediment() {
+        return snapshot != null ? snapshot.sediment[index] : cell.sediment;
+    }
+
+    public float getRiverMask() {
+        return snapshot != null ? snapshot.riverMask[index] : cell.riverMask;
+    }
+
+    /**
+     * @param flags one or more of the ChunkSnapshot terrain flags
+     */
+    public boolean is(byte flags) {
+        if (snapshot != null) {
+            return snapshot.is(index, flags);
+        }
+        return (ChunkSnapshot.getFlags(cell, terrains) & flags) != 0;
+    }
+
     @Override
     public void close() {
         if (depthBuffer != null) {
@@ -125,9 +125,24 @@ public abstract class SetupEvent<T> extends Event {
      */
     public static class Terrain extends SetupEvent<TerrainProvider> {
 
+        private boolean accessed = false;
+
         public Terrain(TerrainProvider provider, GeneratorContext context) {
             super(provider, context);
         }
+
+        @Override
+        public TerrainProvider getManager() {
+            accessed = true;
+            return super.getManager();
+        }
+
+        /**
+         * Returns true if a listener accessed the TerrainProvider, in which case it may have been modified
+         */
+        public boolean isAccessed() {
+            return accessed;
+        }
     }
 
     /**
@@ -0,0 +1,111 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.terraforged.api.query;
+
+/**
+ * A rectangle of block positions sampled every 'stride' blocks along each axis, starting at (x, z)
+ */
+public class QueryArea {
+
+    private final int x;
+    private final int z;
+    private final int width;
+    private final int length;
+    private final int stride;
+
+    /**
+     * @param x the minimum block x coordinate
+     * @param z the minimum block z coordinate
+     * @param width the size of the area along the x axis in blocks
+     * @param length the size of the area along the z axis in blocks
+     * @param stride the distance in blocks between samples
+     */
+    public QueryArea(int x, int z, int width, int length, int stride) {
+        if (width <= 0 || length <= 0) {
+            throw new IllegalArgumentException("Invalid area size: " + width + "x" + length);
+        }
+        if (stride <= 0) {
+            throw new IllegalArgumentException("Invalid stride: " + stride);
+        }
+        this.x = x;
+        this.z = z;
+        this.width = width;
+        this.length = length;
+        this.stride = stride;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getZ() {
+        return z;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getStride() {
+        return stride;
+    }
+
+    /**
+     * The number of samples along the x axis
+     */
+    public int getSamplesX() {
+        return (width + stride - 1) / stride;
+    }
+
+    /**
+     * The number of samples along the z axis
+     */
+    public int getSamplesZ() {
+        return (length + stride - 1) / stride;
+    }
+
+    /**
+     * The total number of samples, ie the minimum length of the arrays in a QueryBuffer for this area
+     */
+    public int getSampleCount() {
+        return getSamplesX() * getSamplesZ();
+    }
+
+    /**
+     * The index of the sample (sx, sz) in a QueryBuffer's arrays
+     */
+    public int indexOf(int sx, int sz) {
+        return sz * getSamplesX() + sx;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryArea{x=" + x + ", z=" + z + ", width=" + width + ", length=" + length + ", stride=" + stride + '}';
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.terraforged.api.query;
+
+/**
+ * Caller-supplied arrays that a WorldQuery fills with one value per sample of a QueryArea, in row-major
+ * order (see QueryArea#indexOf). Any array left unset is skipped.
+ */
+public class QueryBuffer {
+
+    private int[] height;
+    private int[] terrain;
+    private int[] biome;
+    private float[] temperature;
+    private float[] moisture;
+
+    /**
+     * The y level of the top terrain block of each sample (the heightmap value scaled to the world height)
+     */
+    public QueryBuffer height(int[] height) {
+        this.height = height;
+        return this;
+    }
+
+    /**
+     * The terrain type id of each sample, see WorldQuery#getTerrain
+     */
+    public QueryBuffer terrain(int[] terrain) {
+        this.terrain = terrain;
+        return this;
+    }
+
+    /**
+     * The biome registry id of each sample
+     */
+    public QueryBuffer biome(int[] biome) {
+        this.biome = biome;
+        return this;
+    }
+
+    /**
+     * The temperature (0-1) of each sample
+     */
+    public QueryBuffer temperature(float[] temperature) {
+        this.temperature = temperature;
+        return this;
+    }
+
+    /**
+     * The moisture (0-1) of each sample
+     */
+    public QueryBuffer moisture(float[] moisture) {
+        this.moisture = moisture;
+        return this;
+    }
+
+    public int[] getHeight() {
+        return height;
+    }
+
+    public int[] getTerrain() {
+        return terrain;
+    }
+
+    public int[] getBiome() {
+        return biome;
+    }
+
+    public float[] getTemperature() {
+        return temperature;
+    }
+
+    public float[] getMoisture() {
+        return moisture;
+    }
+
+    /**
+     * Throws an IllegalArgumentException if any of the set arrays are too short for the given area
+     */
+    public void validate(QueryArea area) {
+        int size = area.getSampleCount();
+        check("height", height == null ? size : height.length, size);
+        check("terrain", terrain == null ? size : terrain.length, size);
+        check("biome", biome == null ? size : biome.length, size);
+        check("temperature", temperature == null ? size : temperature.length, size);
+        check("moisture", moisture == null ? size : moisture.length, size);
+    }
+
+    private static void check(String name, int length, int size) {
+        if (length < size) {
+            throw new IllegalArgumentException("The " + name + " array is too short: " + length + " < " + size);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.terraforged.api.query;
+
+import com.terraforged.world.terrain.Terrain;
+import net.minecraft.world.gen.ChunkGenerator;
+import net.minecraft.world.server.ServerWorld;
+
+/**
+ * Batch look-ups of TerraForged's world data. Implemented by the chunk generator of TerraForged worlds.
+ *
+ * Prefer querying whole areas over repeated single-position look-ups: samples are served from generated
+ * heightmap tiles where they are cached and computed in parallel where they are not.
+ */
+public interface WorldQuery {
+
+    /**
+     * Fills the buffer's arrays with the values at each sample position of the area. Blocks until complete
+     */
+    void query(QueryArea area, QueryBuffer buffer);
+
+    /**
+     * Returns the terrain type for an id written to a QueryBuffer's terrain array
+     */
+    Terrain getTerrain(int id);
+
+    /**
+     * Returns the world's WorldQuery, or null if it is not a TerraForged world
+     */
+    static WorldQuery get(ServerWorld world) {
+        ChunkGenerator<?> generator = world.getChunkProvider().getChunkGenerator();
+        if (generator instanceof WorldQuery) {
+            return (WorldQuery) generator;
+        }
+        return null;
+    }
+}
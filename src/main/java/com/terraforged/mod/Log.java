@@ -40,6 +40,10 @@ public class Log {
         logger.debug(message, args);
     }
 
+    public static void warn(String message, Object... args) {
+        logger.warn(message, args);
+    }
+
     public static void err(String message, Object... args) {
         logger.error(message, args);
     }
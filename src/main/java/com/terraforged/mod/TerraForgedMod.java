@@ -28,6 +28,7 @@ package com.terraforged.mod;
 import com.terraforged.api.material.WGTags;
 import com.terraforged.fm.template.TemplateManager;
 import com.terraforged.mod.chunk.settings.SettingsHelper;
+import com.terraforged.mod.chunk.util.LightTable;
 import com.terraforged.mod.config.ConfigManager;
 import com.terraforged.mod.data.DataGen;
 import com.terraforged.mod.feature.context.ContextSelectorFeature;
@@ -75,6 +76,7 @@ public class TerraForgedMod {
 
     @SubscribeEvent
     public static void complete(FMLLoadCompleteEvent event) {
+        LightTable.rebuild();
         if (Environment.isDev()) {
             DataGen.dumpData();
         }
@@ -110,6 +112,7 @@ public class TerraForgedMod {
         public static void update(TagsUpdatedEvent event) {
             Log.info("Tags Reloaded");
             WGTags.printTags();
+            LightTable.rebuild();
         }
     }
 }
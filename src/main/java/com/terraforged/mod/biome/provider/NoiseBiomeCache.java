@@ -0,0 +1,147 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.terraforged.mod.biome.provider;
+
+import com.terraforged.core.cell.Cell;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.biome.Biome;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds the quarter-resolution (4x4 block) biome grid of recently generated heightmap regions so that
+ * getNoiseBiome can be answered without sampling the heightmap & biome map. Grids are filled in bulk from a
+ * tile's cells as it is encoded. Lookups do not lock; the cache is bounded to MAX_REGIONS, evicting the
+ * oldest regions first.
+ */
+public class NoiseBiomeCache {
+
+    private static final int MAX_REGIONS = 2048;
+
+    private final int shift;
+    private final int mask;
+    private final int size;
+    private final TerraBiomeProvider biomeProvider;
+    private final Map<Long, Biome[]> regions = new ConcurrentHashMap<>();
+    private final Queue<Long> order = new ConcurrentLinkedQueue<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public NoiseBiomeCache(int factor, TerraBiomeProvider biomeProvider) {
+        // regions are (16 << factor) blocks wide, ie (4 << factor) quarter-positions
+        this.shift = 2 + factor;
+        this.size = 1 << shift;
+        this.mask = size - 1;
+        this.biomeProvider = biomeProvider;
+    }
+
+    public int getSize() {
+        return regions.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public float getHitRate() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0F : hits / (float) total;
+    }
+
+    public boolean contains(int regionX, int regionZ) {
+        return regions.containsKey(ChunkPos.asLong(regionX, regionZ));
+    }
+
+    /**
+     * Returns the biome at the given quarter-resolution coordinates, or null if its region is not cached
+     */
+    public Biome getBiome(int quartX, int quartZ) {
+        Biome[] grid = regions.get(ChunkPos.asLong(quartX >> shift, quartZ >> shift));
+        if (grid == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return grid[(quartZ & mask) * size + (quartX & mask)];
+    }
+
+    public Builder builder(int regionX, int regionZ) {
+        return new Builder(regionX, regionZ);
+    }
+
+    public void put(Builder builder) {
+        long id = ChunkPos.asLong(builder.regionX, builder.regionZ);
+        if (regions.put(id, builder.grid) == null) {
+            order.add(id);
+            while (regions.size() > MAX_REGIONS) {
+                Long eldest = order.poll();
+                if (eldest == null) {
+                    break;
+                }
+                regions.remove(eldest);
+            }
+        }
+    }
+
+    /**
+     * Collects a region's biome grid from its cells. Not thread-safe
+     */
+    public class Builder {
+
+        private final int regionX;
+        private final int regionZ;
+        private final int blockX;
+        private final int blockZ;
+        private final Biome[] grid = new Biome[size * size];
+
+        private Builder(int regionX, int regionZ) {
+            this.regionX = regionX;
+            this.regionZ = regionZ;
+            this.blockX = regionX << (shift + 2);
+            this.blockZ = regionZ << (shift + 2);
+        }
+
+        /**
+         * Adds the cell at the given block offset from the region's origin. Only cells at the corners of the
+         * 4x4 grid contribute, matching the positions sampled by getNoiseBiome
+         */
+        public void add(int offsetX, int offsetZ, Cell cell) {
+            if ((offsetX & 3) != 0 || (offsetZ & 3) != 0) {
+                return;
+            }
+            Biome biome = biomeProvider.getBiome(cell, blockX + offsetX, blockZ + offsetZ);
+            grid[(offsetZ >> 2) * size + (offsetX >> 2)] = biome;
+        }
+    }
+}
@@ -31,6 +31,7 @@ import com.terraforged.core.concurrent.Resource;
 import com.terraforged.mod.biome.map.BiomeMap;
 import com.terraforged.mod.biome.modifier.BiomeModifierManager;
 import com.terraforged.mod.chunk.TerraContext;
+import com.terraforged.mod.chunk.tile.lod.LodCache;
 import com.terraforged.mod.util.setup.SetupHooks;
 import com.terraforged.world.heightmap.WorldLookup;
 import net.minecraft.util.math.BlockPos;
@@ -50,6 +51,8 @@ public class TerraBiomeProvider extends BiomeProvider {
     private final TerraContext context;
     private final WorldLookup worldLookup;
     private final BiomeModifierManager modifierManager;
+    private final NoiseBiomeCache noiseBiomes;
+    private final LodCache lodCache;
 
     public TerraBiomeProvider(TerraContext context) {
         super(BiomeHelper.getAllBiomes());
@@ -58,6 +61,8 @@ public class TerraBiomeProvider extends BiomeProvider {
         this.biomeMap = BiomeHelper.createBiomeMap();
         this.worldLookup = new WorldLookup(context.factory, context);
         this.modifierManager = SetupHooks.setup(new BiomeModifierManager(context, biomeMap), context.copy());
+        this.noiseBiomes = new NoiseBiomeCache(context.tileSize, this);
+        this.lodCache = new LodCache(this);
     }
 
     public Resource<Cell> lookupPos(int x, int z) {
@@ -72,6 +77,11 @@ public class TerraBiomeProvider extends BiomeProvider {
 
     @Override
     public Biome getNoiseBiome(int x, int y, int z) {
+        Biome biome = noiseBiomes.getBiome(x, z);
+        if (biome != null) {
+            return biome;
+        }
+
         x = (x << 2);
         z = (z << 2);
         try (Resource<Cell> cell = lookupPos(x, z)) {
@@ -143,6 +153,14 @@ public class TerraBiomeProvider extends BiomeProvider {
         return context;
     }
 
+    public NoiseBiomeCache getNoiseBiomes() {
+        return noiseBiomes;
+    }
+
+    public LodCache getLodCache() {
+        return lodCache;
+    }
+
     public BiomeModifierManager getModifierManager() {
         return modifierManager;
     }
@@ -2,6 +2,7 @@ package com.terraforged.mod.biome.spawn;
 
 import com.terraforged.mod.Log;
 import com.terraforged.mod.biome.provider.TerraBiomeProvider;
+import com.terraforged.mod.chunk.tile.SpawnPrewarm;
 import com.terraforged.world.continent.MutableVeci;
 import com.terraforged.world.continent.SpawnType;
 import net.minecraft.util.math.BlockPos;
@@ -37,6 +38,7 @@ public class SpawnHandler {
                 Log.info("Setting world spawn: {}", spawn);
                 event.setCanceled(true);
                 event.getWorld().getWorldInfo().setSpawn(spawn);
+                SpawnPrewarm.start(world, spawn);
 
                 if (event.getSettings().isBonusChestEnabled()) {
                     Log.info("Generating bonus chest");
@@ -17,6 +17,11 @@ public class ForestSurface implements Surface {
         noise = Source.simplex(context.seed.next(), 40, 2).warp(Source.RAND, context.seed.next(), 2, 1, 4);
     }
 
+    @Override
+    public boolean usesCell() {
+        return false;
+    }
+
     @Override
     public void buildSurface(int x, int z, int height, SurfaceContext ctx) {
         if (ctx.buffer.getTopBlockY(Heightmap.Type.OCEAN_FLOOR_WG, x, z) == height) {
@@ -10,6 +10,11 @@ import net.minecraft.block.BlockState;
 
 public class SteppeSurface implements Surface {
 
+    @Override
+    public boolean usesCell() {
+        return false;
+    }
+
     @Override
     public void buildSurface(int x, int z, int height, SurfaceContext ctx) {
         Module module = Source.cell(123, 4, CellFunc.DISTANCE).warp(214, 80, 1, 40);
@@ -21,6 +21,11 @@ public class SwampSurface implements Surface {
         noise = Source.simplex(context.seed.next(), 40, 2).warp(Source.RAND, context.seed.next(), 2, 1, 4);
     }
 
+    @Override
+    public boolean usesCell() {
+        return false;
+    }
+
     @Override
     public void buildSurface(int x, int z, int height, SurfaceContext ctx) {
         double noise = Biome.INFO_NOISE.noiseAt(x * 0.25D, z * 0.25D, false);
@@ -28,11 +28,13 @@ package com.terraforged.mod.chunk;
 import com.terraforged.api.biome.surface.SurfaceManager;
 import com.terraforged.api.chunk.column.ColumnDecorator;
 import com.terraforged.api.material.layer.LayerManager;
+import com.terraforged.api.query.QueryArea;
+import com.terraforged.api.query.QueryBuffer;
+import com.terraforged.api.query.WorldQuery;
 import com.terraforged.core.cell.Cell;
 import com.terraforged.core.tile.Size;
 import com.terraforged.core.tile.Tile;
 import com.terraforged.core.tile.chunk.ChunkReader;
-import com.terraforged.core.tile.gen.TileCache;
 import com.terraforged.fm.FeatureManager;
 import com.terraforged.fm.data.DataManager;
 import com.terraforged.fm.structure.StructureManager;
@@ -45,10 +47,18 @@ import com.terraforged.mod.chunk.generator.StructureGenerator;
 import com.terraforged.mod.chunk.generator.SurfaceGenerator;
 import com.terraforged.mod.chunk.generator.TerrainCarver;
 import com.terraforged.mod.chunk.generator.TerrainGenerator;
+import com.terraforged.mod.chunk.tile.ChunkSummary;
+import com.terraforged.mod.chunk.tile.GenerationQueue;
+import com.terraforged.mod.chunk.tile.RegionPrefetcher;
+import com.terraforged.mod.chunk.tile.TileCacheFactory;
+import com.terraforged.mod.chunk.tile.TileProvider;
+import com.terraforged.mod.chunk.tile.TileQuery;
+import com.terraforged.mod.config.PerfSettings;
 import com.terraforged.mod.feature.BlockDataManager;
 import com.terraforged.mod.material.Materials;
 import com.terraforged.mod.material.geology.GeoManager;
 import com.terraforged.mod.util.setup.SetupHooks;
+import com.terraforged.world.terrain.Terrain;
 import net.minecraft.entity.EntityClassification;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.IWorld;
@@ -65,7 +75,7 @@ import net.minecraft.world.server.ServerWorld;
 
 import java.util.List;
 
-public class TerraChunkGenerator extends ChunkGenerator<GenerationSettings> {
+public class TerraChunkGenerator extends ChunkGenerator<GenerationSettings> implements WorldQuery {
 
     private final TerraContext context;
     private final TerraBiomeProvider biomeProvider;
@@ -86,7 +96,9 @@ public class TerraChunkGenerator extends ChunkGenerator<GenerationSettings> {
     private final List<ColumnDecorator> baseDecorators;
     private final List<ColumnDecorator> postProcessors;
 
-    private final TileCache tileCache;
+    private final TileProvider tileProvider;
+    private final TileQuery tileQuery;
+    private final RegionPrefetcher prefetcher;
 
     public TerraChunkGenerator(TerraContext context, TerraBiomeProvider biomeProvider, GenerationSettings settings) {
         super(context.world, biomeProvider, settings);
@@ -105,7 +117,10 @@ public class TerraChunkGenerator extends ChunkGenerator<GenerationSettings> {
         this.geologyManager = TerraSetupFactory.createGeologyManager(context);
         this.baseDecorators = TerraSetupFactory.createBaseDecorators(geologyManager, context);
         this.postProcessors = TerraSetupFactory.createFeatureDecorators(context);
-        this.tileCache = context.cache;
+        this.tileProvider = TerraSetupFactory.createTileProvider(context);
+        this.prefetcher = TerraSetupFactory.createPrefetcher(tileProvider);
+        this.tileProvider.getSummaries().setNoiseBiomes(biomeProvider.getNoiseBiomes());
+        this.tileQuery = new TileQuery(tileProvider, biomeProvider, context.levels);
 
         try (DataManager data = TerraSetupFactory.createDataManager()) {
             FeatureManager.initData(data);
@@ -175,15 +190,25 @@ public class TerraChunkGenerator extends ChunkGenerator<GenerationSettings> {
 
     @Override
     public final int func_222529_a(int x, int z, Heightmap.Type type) {
+        int level = getSurfaceLevel(x, z) + 1;
+        if (type == Heightmap.Type.OCEAN_FLOOR || type == Heightmap.Type.OCEAN_FLOOR_WG) {
+            return level;
+        }
+        return Math.max(getSeaLevel(), level);
+    }
+
+    private int getSurfaceLevel(int x, int z) {
+        // served from the height index once the region has been generated
+        int height = tileProvider.getSummaries().getHeights().getHeight(x, z);
+        if (height >= 0) {
+            return height;
+        }
+
         int chunkX = Size.blockToChunk(x);
         int chunkZ = Size.blockToChunk(z);
         try (ChunkReader chunk = getChunkReader(chunkX, chunkZ)) {
             Cell cell = chunk.getCell(x, z);
-            int level = context.levels.scale(cell.value) + 1;
-            if (type == Heightmap.Type.OCEAN_FLOOR || type == Heightmap.Type.OCEAN_FLOOR_WG) {
-                return level;
-            }
-            return Math.max(getSeaLevel(), level);
+            return context.levels.scale(cell.value);
         }
     }
 
@@ -248,19 +273,69 @@ public class TerraChunkGenerator extends ChunkGenerator<GenerationSettings> {
     }
 
     public final void queueChunk(int chunkX, int chunkZ) {
-        int rx = tileCache.chunkToRegion(chunkX);
-        int rz = tileCache.chunkToRegion(chunkZ);
-        tileCache.queueRegion(rx, rz);
+        int rx = tileProvider.chunkToRegion(chunkX);
+        int rz = tileProvider.chunkToRegion(chunkZ);
+        tileProvider.queueRegion(rx, rz, GenerationQueue.Priority.DEMAND);
     }
 
     public final Tile getTile(int chunkX, int chunkZ) {
-        int rx = tileCache.chunkToRegion(chunkX);
-        int rz = tileCache.chunkToRegion(chunkZ);
-        return tileCache.getRegion(rx, rz);
+        int rx = tileProvider.chunkToRegion(chunkX);
+        int rz = tileProvider.chunkToRegion(chunkZ);
+        return tileProvider.getRegion(rx, rz);
+    }
+
+    public final TileProvider getTileProvider() {
+        return tileProvider;
+    }
+
+    public final RegionPrefetcher getPrefetcher() {
+        return prefetcher;
+    }
+
+    /**
+     * Applies the given settings to the generator's TileCache factory & returns it, see TileCacheFactory#reload
+     */
+    public final TileCacheFactory reload(PerfSettings settings) {
+        context.cacheFactory.reload(settings);
+        return context.cacheFactory;
+    }
+
+    @Override
+    public final void query(QueryArea area, QueryBuffer buffer) {
+        tileQuery.query(area, buffer);
+    }
+
+    @Override
+    public final Terrain getTerrain(int id) {
+        return tileQuery.getTerrain(id);
+    }
+
+    /**
+     * Returns the summary of the chunk's heightmap, or null if its region has not been generated yet. Does
+     * not trigger generation
+     */
+    public final ChunkSummary getChunkSummary(int chunkX, int chunkZ) {
+        return tileProvider.getSummaries().getChunk(chunkX, chunkZ);
     }
 
     public final ChunkReader getChunkReader(int chunkX, int chunkZ) {
-        return tileCache.getChunk(chunkX, chunkZ);
+        if (prefetcher != null) {
+            prefetcher.onRequest(tileProvider.chunkToRegion(chunkX), tileProvider.chunkToRegion(chunkZ));
+        }
+        return tileProvider.getChunk(chunkX, chunkZ);
+    }
+
+    /**
+     * Gets a reader that is held by the chunk's generation session for the duration of its generation. The
+     * session ends when the chunk releases it, or when the chunk is unloaded before completing generation
+     */
+    public final ChunkReader getSessionReader(IChunk chunk) {
+        int chunkX = chunk.getPos().x;
+        int chunkZ = chunk.getPos().z;
+        if (prefetcher != null) {
+            prefetcher.onRequest(tileProvider.chunkToRegion(chunkX), tileProvider.chunkToRegion(chunkZ));
+        }
+        return tileProvider.getChunk(chunkX, chunkZ, chunk);
     }
 
     public static ChunkReader getChunk(IWorld world, ChunkGenerator<?> generator) {
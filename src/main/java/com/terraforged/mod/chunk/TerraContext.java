@@ -25,18 +25,15 @@
 
 package com.terraforged.mod.chunk;
 
-import com.electronwill.nightconfig.core.CommentedConfig;
 import com.terraforged.api.biome.surface.ChunkSurfaceBuffer;
 import com.terraforged.api.biome.surface.SurfaceContext;
 import com.terraforged.api.chunk.column.DecoratorContext;
-import com.terraforged.core.concurrent.thread.ThreadPools;
-import com.terraforged.core.tile.gen.TileCache;
-import com.terraforged.core.tile.gen.TileGenerator;
 import com.terraforged.mod.chunk.settings.TerraSettings;
+import com.terraforged.mod.chunk.tile.TileCacheFactory;
 import com.terraforged.mod.config.PerfDefaults;
+import com.terraforged.mod.config.PerfSettings;
 import com.terraforged.mod.material.Materials;
 import com.terraforged.world.GeneratorContext;
-import com.terraforged.world.WorldGeneratorFactory;
 import com.terraforged.world.heightmap.Heightmap;
 import com.terraforged.world.terrain.Terrains;
 import net.minecraft.world.IWorld;
@@ -49,21 +46,40 @@ public class TerraContext extends GeneratorContext {
     public final Heightmap heightmap;
     public final Materials materials;
     public final TerraSettings terraSettings;
+    public final int tileSize;
+    public final TileCacheFactory cacheFactory;
 
+    /**
+     * Creates a copy with its own TileCache (on the other context's lease of the shared generation pool) for
+     * subclasses that replace the heightmap. Plain copies made via {@link #copy()} share this context's
+     * TileCache instead.
+     */
     public TerraContext(TerraContext other) {
-        super(other.terrain, other.settings, other.terrainFactory, TerraContext::createCache);
+        this(other, new TileCacheFactory(other.cacheFactory));
+    }
+
+    public TerraContext(IWorld world, Terrains terrain, TerraSettings settings) {
+        this(world, terrain, settings, new TileCacheFactory(PerfSettings.load(PerfDefaults.getAndPrintPerfSettings())));
+    }
+
+    private TerraContext(TerraContext other, TileCacheFactory cacheFactory) {
+        super(other.terrain, other.settings, other.terrainFactory, cacheFactory::create);
         this.world = other.world;
         this.materials = other.materials;
         this.terraSettings = other.terraSettings;
         this.heightmap = factory.getHeightmap();
+        this.cacheFactory = cacheFactory;
+        this.tileSize = cacheFactory.getSettings().tileSize;
     }
 
-    public TerraContext(IWorld world, Terrains terrain, TerraSettings settings) {
-        super(terrain, settings, TerraTerrainProvider::new, TerraContext::createCache);
+    private TerraContext(IWorld world, Terrains terrain, TerraSettings settings, TileCacheFactory cacheFactory) {
+        super(terrain, settings, TerraTerrainProvider::new, cacheFactory::create);
         this.world = world;
         this.materials = new Materials();
         this.terraSettings = settings;
         this.heightmap = factory.getHeightmap();
+        this.cacheFactory = cacheFactory;
+        this.tileSize = cacheFactory.getSettings().tileSize;
     }
 
     public DecoratorContext decorator(IChunk chunk) {
@@ -73,18 +89,4 @@ public class TerraContext extends GeneratorContext {
     public SurfaceContext surface(ChunkSurfaceBuffer buffer, GenerationSettings settings) {
         return new SurfaceContext(buffer, levels, terrain, factory.getClimate(), settings, world.getSeed());
     }
-
-    public static TileCache createCache(WorldGeneratorFactory factory) {
-        CommentedConfig config = PerfDefaults.getAndPrintPerfSettings();
-        boolean batching = config.getOrElse("batching", false);
-        int tileSize = Math.min(PerfDefaults.MAX_TILE_SIZE, Math.max(2, config.getInt("tile_size")));
-        int batchCount = Math.min(PerfDefaults.MAX_BATCH_COUNT, Math.max(1, config.getInt("batch_count")));
-        int threadCount = Math.min(PerfDefaults.MAX_THREAD_COUNT, Math.max(1, config.getInt("thread_count")));
-        return TileGenerator.builder()
-                .pool(ThreadPools.create(threadCount, batching))
-                .size(tileSize, 2)
-                .batch(batchCount)
-                .factory(factory)
-                .build().toCache();
-    }
 }
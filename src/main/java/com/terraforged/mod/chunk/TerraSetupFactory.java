@@ -1,5 +1,6 @@
 package com.terraforged.mod.chunk;
 
+import com.electronwill.nightconfig.core.CommentedConfig;
 import com.terraforged.api.biome.surface.SurfaceManager;
 import com.terraforged.api.chunk.column.ColumnDecorator;
 import com.terraforged.fm.FeatureManager;
@@ -27,6 +28,20 @@ import com.terraforged.mod.chunk.column.ErosionDecorator;
 import com.terraforged.mod.chunk.column.GeologyDecorator;
 import com.terraforged.mod.chunk.column.post.LayerDecorator;
 import com.terraforged.mod.chunk.column.post.SnowEroder;
+import com.terraforged.mod.chunk.tile.BufferedTile;
+import com.terraforged.mod.chunk.tile.CellCodec;
+import com.terraforged.mod.chunk.tile.GenerationExecutor;
+import com.terraforged.mod.chunk.tile.GenerationQueue;
+import com.terraforged.mod.chunk.tile.ReaderTracker;
+import com.terraforged.mod.chunk.tile.RegionCache;
+import com.terraforged.mod.chunk.tile.RegionPrefetcher;
+import com.terraforged.mod.chunk.tile.SummaryIndex;
+import com.terraforged.mod.chunk.tile.TileArena;
+import com.terraforged.mod.chunk.tile.TileProvider;
+import com.terraforged.mod.chunk.tile.TileStore;
+import com.terraforged.mod.chunk.tile.worker.WorkerPool;
+import com.terraforged.mod.config.ConfigManager;
+import com.terraforged.mod.config.PerfDefaults;
 import com.terraforged.mod.feature.BlockDataManager;
 import com.terraforged.mod.feature.Matchers;
 import com.terraforged.mod.feature.feature.FreezeLayer;
@@ -158,6 +173,67 @@ public class TerraSetupFactory {
         return SetupHooks.setup(manager, context);
     }
 
+    public static TileProvider createTileProvider(TerraContext context) {
+        CommentedConfig config = ConfigManager.PERFORMANCE.get();
+        boolean packed = config.getOrElse("packed_tiles", PerfDefaults.PACKED_TILES);
+        CellCodec codec = CellCodec.create(context.terrain, packed);
+
+        TileStore store = null;
+        if (config.getOrElse("tile_store", PerfDefaults.TILE_STORE)) {
+            store = TileStore.create(context, codec, context.tileSize);
+        }
+
+        RegionCache regions = null;
+        int tileWeight = BufferedTile.getDataSize(context.tileSize, codec);
+        int cacheSize = Math.min(PerfDefaults.MAX_CACHE_MB, config.getIntOrElse("max_cache_mb", PerfDefaults.CACHE_MB));
+        if (cacheSize > 0) {
+            long maxWeight = Math.max(tileWeight, cacheSize * 1024L * 1024L);
+            regions = new RegionCache(maxWeight, tileWeight);
+        }
+
+        TileArena arena = null;
+        if (config.getOrElse("off_heap_tiles", PerfDefaults.OFF_HEAP_TILES)) {
+            arena = new TileArena(tileWeight, PerfDefaults.MAX_POOLED_TILES);
+        }
+
+        String name = String.valueOf(context.world.getDimension().getType().getRegistryName());
+        int timeout = Math.max(1, config.getIntOrElse("queue_timeout", PerfDefaults.QUEUE_TIMEOUT));
+        GenerationQueue queue = GenerationExecutor.getInstance().createQueue(name, timeout * 1000L);
+
+        SummaryIndex summaries = new SummaryIndex(context.tileSize, context.levels, codec);
+        TileProvider provider = new TileProvider(context.cacheFactory, context.cache, codec, context.tileSize, store, regions, arena, queue, summaries);
+
+        int workers = Math.min(PerfDefaults.MAX_TILE_WORKERS, config.getIntOrElse("tile_workers", PerfDefaults.TILE_WORKERS));
+        if (workers > 0) {
+            if (store == null) {
+                Log.info("Tile workers require the tile store to be enabled");
+            } else if (SetupHooks.hasTerrainHooks()) {
+                // workers run outside of the game so they would generate tiles without the other mods' terrain
+                Log.info("Tile workers are disabled because another mod modifies the terrain");
+            } else {
+                int memory = Math.max(256, config.getIntOrElse("tile_worker_memory", PerfDefaults.TILE_WORKER_MEMORY));
+                provider.setWorkers(WorkerPool.create(context, store, workers, memory, packed));
+            }
+        }
+
+        // always tracked so that the session readers of unloaded chunks are closed, a ttl of 0 only disables reclaiming
+        int readerTTL = Math.max(0, config.getIntOrElse("reader_ttl", PerfDefaults.READER_TTL));
+        boolean leakDetection = readerTTL > 0 && config.getOrElse("reader_leak_detection", PerfDefaults.READER_LEAK_DETECTION);
+        provider.setReaderTracker(new ReaderTracker(provider, readerTTL * 1000L, leakDetection));
+
+        return provider;
+    }
+
+    public static RegionPrefetcher createPrefetcher(TileProvider provider) {
+        CommentedConfig config = ConfigManager.PERFORMANCE.get();
+        int distance = Math.min(PerfDefaults.MAX_PREFETCH_DISTANCE, config.getIntOrElse("prefetch_distance", PerfDefaults.PREFETCH_DISTANCE));
+        int maxRegions = Math.min(PerfDefaults.MAX_PREFETCH_REGIONS, config.getIntOrElse("prefetch_max_regions", PerfDefaults.PREFETCH_MAX_REGIONS));
+        if (distance <= 0 || maxRegions <= 0) {
+            return null;
+        }
+        return new RegionPrefetcher(provider, distance, maxRegions);
+    }
+
     public static GeoManager createGeologyManager(TerraContext context) {
         return new GeoManager(context);
     }
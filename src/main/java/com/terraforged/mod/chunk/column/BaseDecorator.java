@@ -28,15 +28,22 @@ package com.terraforged.mod.chunk.column;
 import com.terraforged.api.chunk.column.ColumnDecorator;
 import com.terraforged.api.chunk.column.DecoratorContext;
 import com.terraforged.api.material.state.States;
+import com.terraforged.mod.chunk.util.ChunkSnapshot;
+import com.terraforged.mod.chunk.util.ColumnBuffer;
 import net.minecraft.world.chunk.IChunk;
 
 public class BaseDecorator implements ColumnDecorator {
 
     public static final BaseDecorator INSTANCE = new BaseDecorator();
 
+    @Override
+    public boolean usesCell() {
+        return false;
+    }
+
     @Override
     public void decorate(IChunk chunk, DecoratorContext context, int x, int y, int z) {
-        if (context.cell.terrain == context.terrains.volcanoPipe && context.cell.riverMask > 0.5F) {
+        if (isLavaPipe(context)) {
             int lavaStart = Math.max(context.levels.waterY + 10, y - 30);
             int lavaEnd = Math.max(5, context.levels.waterY - 10);
             fillDown(context, chunk, x, z, lavaStart, lavaEnd, States.LAVA.get());
@@ -46,4 +53,23 @@ public class BaseDecorator implements ColumnDecorator {
         }
         fillDown(context, chunk, x, z, y, 0, States.STONE.get());
     }
+
+    /**
+     * Adds the same runs as decorate(..) to the buffer so that they can be written to the chunk in bulk
+     */
+    public void decorate(ColumnBuffer buffer, DecoratorContext context, int x, int y, int z) {
+        if (isLavaPipe(context)) {
+            int lavaStart = Math.max(context.levels.waterY + 10, y - 30);
+            int lavaEnd = Math.max(5, context.levels.waterY - 10);
+            buffer.fillDown(x, z, lavaStart, lavaEnd, States.LAVA.get());
+            y = lavaEnd;
+        } else if (y < context.levels.waterLevel) {
+            buffer.fillDown(x, z, context.levels.waterY, y, States.WATER.get());
+        }
+        buffer.fillDown(x, z, y, 0, States.STONE.get());
+    }
+
+    private static boolean isLavaPipe(DecoratorContext context) {
+        return context.is(ChunkSnapshot.VOLCANO_PIPE) && context.getRiverMask() > 0.5F;
+    }
 }
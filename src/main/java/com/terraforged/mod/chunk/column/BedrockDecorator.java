@@ -49,6 +49,11 @@ public class BedrockDecorator implements ColumnDecorator {
         material = getState(context.terraSettings.dimensions.bedrockLayer.material);
     }
 
+    @Override
+    public boolean usesCell() {
+        return false;
+    }
+
     @Override
     public void decorate(IChunk chunk, DecoratorContext context, int x, int y, int z) {
         if (variance <= 0) {
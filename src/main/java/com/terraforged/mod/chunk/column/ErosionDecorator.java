@@ -29,8 +29,8 @@ import com.terraforged.api.chunk.column.ColumnDecorator;
 import com.terraforged.api.chunk.column.DecoratorContext;
 import com.terraforged.api.material.state.States;
 import com.terraforged.mod.chunk.TerraContext;
+import com.terraforged.mod.chunk.util.ChunkSnapshot;
 import com.terraforged.mod.material.Materials;
-import com.terraforged.world.terrain.Terrains;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.material.Material;
@@ -57,15 +57,15 @@ public class ErosionDecorator implements ColumnDecorator {
     private static final float SEDIMENT_NOISE = 3F / 255F;
     private static final float SCREE_VALUE = 0.55F;
 
+    private static final byte SKIPPED = ChunkSnapshot.RIVER | ChunkSnapshot.WETLAND | ChunkSnapshot.VOLCANO_PIPE;
+
     private final int seed1;
     private final int seed2;
     private final int seed3;
     private final float minY;
-    private final Terrains terrain;
     private final Materials materials;
 
     public ErosionDecorator(TerraContext context) {
-        this.terrain = context.terrain;
         this.seed1 = context.seed.next();
         this.seed2 = context.seed.next();
         this.seed3 = context.seed.next();
@@ -74,12 +74,13 @@ public class ErosionDecorator implements ColumnDecorator {
     }
 
     @Override
-    public void decorate(IChunk chunk, DecoratorContext context, int x, int y, int z) {
-        if (context.cell.value < minY || context.cell.terrain.isRiver() || context.cell.terrain.isWetland()) {
-            return;
-        }
+    public boolean usesCell() {
+        return false;
+    }
 
-        if (context.cell.terrain == terrain.volcanoPipe) {
+    @Override
+    public void decorate(IChunk chunk, DecoratorContext context, int x, int y, int z) {
+        if (context.getValue() < minY || context.is(SKIPPED)) {
             return;
         }
 
@@ -124,12 +125,12 @@ public class ErosionDecorator implements ColumnDecorator {
     }
 
     protected void placeScree(IChunk chunk, DecoratorContext context, int x, int y, int z) {
-        float steepness = context.cell.gradient + context.climate.getRand().getValue(x, z, seed2) * SLOPE_MODIFIER;
+        float steepness = context.getGradient() + context.climate.getRand().getValue(x, z, seed2) * SLOPE_MODIFIER;
         if (steepness < SCREE_STEEPNESS) {
             return;
         }
 
-        float sediment = context.cell.sediment * SEDIMENT_MODIFIER;
+        float sediment = context.getSediment() * SEDIMENT_MODIFIER;
         float noise = context.climate.getRand().getValue(x, z, seed3) * SEDIMENT_NOISE;
         if (sediment + noise > SCREE_VALUE) {
             fillDownSolid(context, chunk, x, z, y, y - 2, States.GRAVEL.get());
@@ -145,8 +146,8 @@ public class ErosionDecorator implements ColumnDecorator {
     }
 
     private BlockState getMaterial(float x, float z, DecoratorContext context, BlockState top, BlockState middle) {
-        float height = context.cell.value + context.climate.getRand().getValue(x, z, seed1) * HEIGHT_MODIFIER;
-        float steepness = context.cell.gradient + context.climate.getRand().getValue(x, z, seed2) * SLOPE_MODIFIER;
+        float height = context.getValue() + context.climate.getRand().getValue(x, z, seed1) * HEIGHT_MODIFIER;
+        float steepness = context.getGradient() + context.climate.getRand().getValue(x, z, seed2) * SLOPE_MODIFIER;
 
         if (steepness > ROCK_STEEPNESS || height > ColumnDecorator.getNoise(x, z, seed1, ROCK_VAR, ROCK_MIN)) {
             return rock(middle);
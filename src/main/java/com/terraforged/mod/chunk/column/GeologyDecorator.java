@@ -42,6 +42,11 @@ public class GeologyDecorator implements ColumnDecorator, Stratum.Visitor<BlockS
         this.geology = geology;
     }
 
+    @Override
+    public boolean usesCell() {
+        return false;
+    }
+
     @Override
     public void decorate(IChunk chunk, DecoratorContext context, int x, int dy, int z) {
 
@@ -29,7 +29,6 @@ import com.terraforged.api.chunk.column.ColumnDecorator;
 import com.terraforged.api.chunk.column.DecoratorContext;
 import com.terraforged.api.material.layer.LayerManager;
 import com.terraforged.api.material.layer.LayerMaterial;
-import com.terraforged.core.cell.Cell;
 import com.terraforged.world.heightmap.Levels;
 import net.minecraft.block.BlockState;
 import net.minecraft.util.math.BlockPos;
@@ -43,6 +42,11 @@ public class LayerDecorator implements ColumnDecorator {
         this.layerManager = layerManager;
     }
 
+    @Override
+    public boolean usesCell() {
+        return false;
+    }
+
     @Override
     public void decorate(IChunk chunk, DecoratorContext context, int x, int y, int z) {
         context.pos.setPos(x, y + 1, z);
@@ -61,11 +65,11 @@ public class LayerDecorator implements ColumnDecorator {
             return;
         }
 
-        setLayer(chunk, context.pos, material, context.cell, context.levels, 0F);
+        setLayer(chunk, context.pos, material, context.getValue(), context.levels, 0F);
     }
 
-    private void setLayer(IChunk chunk, BlockPos pos, LayerMaterial material, Cell cell, Levels levels, float min) {
-        float height = cell.value * levels.worldHeight;
+    private void setLayer(IChunk chunk, BlockPos pos, LayerMaterial material, float value, Levels levels, float min) {
+        float height = value * levels.worldHeight;
         float depth = material.getDepth(height);
         if (depth > min) {
             int level = material.getLevel(depth);
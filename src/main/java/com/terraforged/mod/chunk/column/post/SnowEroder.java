@@ -29,6 +29,7 @@ import com.terraforged.api.chunk.column.ColumnDecorator;
 import com.terraforged.api.chunk.column.DecoratorContext;
 import com.terraforged.mod.chunk.TerraContext;
 import com.terraforged.mod.chunk.column.ErosionDecorator;
+import com.terraforged.mod.chunk.util.ChunkSnapshot;
 import com.terraforged.n2d.source.Rand;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
@@ -71,9 +72,9 @@ public class SnowEroder extends ErosionDecorator {
             float var = -ColumnDecorator.getNoise(x, z, seed1, 16, 0);
             float hNoise = rand.getValue(x, z, seed2) * HEIGHT_MODIFIER;
             float sNoise = rand.getValue(x, z, seed3) * SLOPE_MODIFIER;
-            float vModifier = context.cell.terrain == context.terrains.volcano ? 0.15F : 0F;
-            float height = context.cell.value + var + hNoise + vModifier;
-            float steepness = context.cell.gradient + var + sNoise + vModifier;
+            float vModifier = context.is(ChunkSnapshot.VOLCANO) ? 0.15F : 0F;
+            float height = context.getValue() + var + hNoise + vModifier;
+            float steepness = context.getGradient() + var + sNoise + vModifier;
             if (snowErosion(x, z, steepness, height)) {
                 Predicate<BlockState> predicate = Heightmap.Type.MOTION_BLOCKING.getHeightLimitPredicate();
                 for (int dy = 2; dy > 0; dy--) {
@@ -1,9 +1,7 @@
 package com.terraforged.mod.chunk.generator;
 
-import com.terraforged.core.tile.chunk.ChunkReader;
 import com.terraforged.mod.chunk.TerraChunkGenerator;
-import com.terraforged.mod.chunk.util.TerraContainer;
-import net.minecraft.util.math.ChunkPos;
+import com.terraforged.mod.chunk.util.ChunkSession;
 import net.minecraft.world.chunk.IChunk;
 
 public class BiomeGenerator implements Generator.Biomes {
@@ -16,9 +14,7 @@ public class BiomeGenerator implements Generator.Biomes {
 
     @Override
     public void generateBiomes(IChunk chunk) {
-        ChunkPos pos = chunk.getPos();
-        try (ChunkReader reader = generator.getChunkReader(pos.x, pos.z)) {
-            TerraContainer.create(reader, generator.getBiomeProvider());
-        }
+        // opens the chunk's session & sets its TerraContainer on the primer
+        ChunkSession.getOrCreate(chunk, generator);
     }
 }
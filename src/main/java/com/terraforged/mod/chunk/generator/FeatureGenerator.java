@@ -5,6 +5,8 @@ import com.terraforged.api.chunk.column.DecoratorContext;
 import com.terraforged.core.tile.chunk.ChunkReader;
 import com.terraforged.mod.chunk.TerraChunkGenerator;
 import com.terraforged.mod.chunk.fix.RegionFix;
+import com.terraforged.mod.chunk.util.ChunkSession;
+import com.terraforged.mod.chunk.util.ChunkSnapshot;
 import com.terraforged.mod.chunk.util.TerraContainer;
 import com.terraforged.mod.util.Environment;
 import net.minecraft.util.math.BlockPos;
@@ -31,10 +33,11 @@ public class FeatureGenerator implements Generator.Features {
         int chunkZ = region.getMainChunkZ();
         IChunk chunk = region.getChunk(chunkX, chunkZ);
 
-        ChunkReader reader = generator.getChunkReader(chunkX, chunkZ);
-        TerraContainer container = TerraContainer.getOrCreate(chunk, reader, generator.getBiomeProvider());
+        ChunkSession session = ChunkSession.getOrCreate(chunk, generator);
+        ChunkReader reader = session.getReader();
+        TerraContainer container = session.getContainer();
 
-        Biome biome = container.getFeatureBiome(reader);
+        Biome biome = container.getFeatureBiome(reader, generator.getChunkSummary(chunkX, chunkZ));
         DecoratorContext context = generator.getContext().decorator(chunk);
 
         IWorld regionFix = new RegionFix(region, generator);
@@ -44,29 +47,34 @@ public class FeatureGenerator implements Generator.Features {
         generator.getFeatureManager().decorate(generator, regionFix, chunk, biome, pos);
 
         // run post processes on chunk
-        postProcess(reader, container, context);
+        postProcess(reader, session.getSnapshot(), container, context);
+
+        // release the session's reader & mark the chunk disposed as this is the last usage of it
+        session.release();
 
         // bake biome array
         ((ChunkPrimer) chunk).func_225548_a_(container.bakeBiomes(Environment.isVanillaBiomes()));
-
-        // close the current chunk reader
-        reader.close();
-
-        // mark chunk disposed as this is the last usage of the reader
-        reader.dispose();
     }
 
-    private void postProcess(ChunkReader reader, TerraContainer container, DecoratorContext context) {
+    private void postProcess(ChunkReader reader, ChunkSnapshot snapshot, TerraContainer container, DecoratorContext context) {
         List<ColumnDecorator> decorators = generator.getPostProcessors();
-        reader.iterate(context, (cell, dx, dz, ctx) -> {
-            int px = ctx.blockX + dx;
-            int pz = ctx.blockZ + dz;
-            int py = ctx.chunk.getTopBlockY(Heightmap.Type.WORLD_SURFACE_WG, dx, dz);
-            ctx.cell = cell;
-            ctx.biome = container.getBiome(dx, dz);
+        boolean usesCell = false;
+        for (ColumnDecorator decorator : decorators) {
+            usesCell |= decorator.usesCell();
+        }
+
+        for (int i = 0; i < ChunkSnapshot.SIZE; i++) {
+            int dx = i & 15;
+            int dz = i >> 4;
+            int px = context.blockX + dx;
+            int pz = context.blockZ + dz;
+            int py = context.chunk.getTopBlockY(Heightmap.Type.WORLD_SURFACE_WG, dx, dz);
+            // the cell is only looked up for decorators that don't read the column from the snapshot
+            context.setColumn(snapshot, i, usesCell ? reader.getCell(dx, dz) : null);
+            context.biome = container.getBiome(dx, dz);
             for (ColumnDecorator decorator : decorators) {
-                decorator.decorate(ctx.chunk, ctx, px, py, pz);
+                decorator.decorate(context.chunk, context, px, py, pz);
             }
-        });
+        }
     }
 }
@@ -1,10 +1,13 @@
 package com.terraforged.mod.chunk.generator;
 
 import com.terraforged.api.biome.surface.ChunkSurfaceBuffer;
+import com.terraforged.api.biome.surface.Surface;
 import com.terraforged.api.biome.surface.SurfaceContext;
 import com.terraforged.api.chunk.column.ColumnDecorator;
 import com.terraforged.core.tile.chunk.ChunkReader;
 import com.terraforged.mod.chunk.TerraChunkGenerator;
+import com.terraforged.mod.chunk.util.ChunkSession;
+import com.terraforged.mod.chunk.util.ChunkSnapshot;
 import com.terraforged.mod.chunk.util.FastChunk;
 import com.terraforged.mod.chunk.util.TerraContainer;
 import net.minecraft.util.SharedSeedRandom;
@@ -26,30 +29,46 @@ public class SurfaceGenerator implements Generator.Surfaces {
 
     @Override
     public final void generateSurface(WorldGenRegion world, IChunk chunk) {
-        try (ChunkReader reader = generator.getChunkReader(chunk.getPos().x, chunk.getPos().z)) {
-            TerraContainer container = TerraContainer.getOrCreate(chunk, reader, generator.getBiomeProvider());
-            ChunkSurfaceBuffer buffer = new ChunkSurfaceBuffer(FastChunk.wrap(chunk));
+        ChunkSession session = ChunkSession.getOrCreate(chunk, generator);
+        ChunkReader reader = session.getReader();
+        ChunkSnapshot snapshot = session.getSnapshot();
+        TerraContainer container = session.getContainer();
+        IChunk fastChunk = session.getFastChunk();
+        ChunkSurfaceBuffer buffer = new ChunkSurfaceBuffer(fastChunk);
 
-            try (SurfaceContext context = generator.getContext().surface(buffer, generator.getSettings())) {
-                reader.iterate(context, (cell, dx, dz, ctx) -> {
-                    int px = ctx.blockX + dx;
-                    int pz = ctx.blockZ + dz;
-                    int top = ctx.chunk.getTopBlockY(Heightmap.Type.WORLD_SURFACE_WG, dx, dz);
+        try (SurfaceContext context = generator.getContext().surface(buffer, generator.getSettings());
+             FastChunk.WriteSession writes = FastChunk.beginBufferedWrite(fastChunk)) {
+            boolean decoratorsUseCell = false;
+            for (ColumnDecorator processor : generator.getBaseDecorators()) {
+                decoratorsUseCell |= processor.usesCell();
+            }
+
+            for (int i = 0; i < ChunkSnapshot.SIZE; i++) {
+                int dx = i & 15;
+                int dz = i >> 4;
+                int px = context.blockX + dx;
+                int pz = context.blockZ + dz;
+                int top = context.chunk.getTopBlockY(Heightmap.Type.WORLD_SURFACE_WG, dx, dz);
 
-                    ctx.buffer.setSurfaceLevel(top);
+                context.buffer.setSurfaceLevel(top);
 
-                    ctx.cell = cell;
-                    ctx.biome = container.getBiome(dx, dz);
-                    ctx.noise = getSurfaceNoise(px, pz) * 15D;
+                context.biome = container.getBiome(dx, dz);
+                context.noise = getSurfaceNoise(px, pz) * 15D;
 
-                    generator.getSurfaceManager().getSurface(ctx).buildSurface(px, pz, top, ctx);
+                // the cell is only looked up for surfaces & decorators that don't read the column from the snapshot
+                Surface surface = generator.getSurfaceManager().getSurface(context);
+                context.setColumn(snapshot, i, decoratorsUseCell || surface.usesCell() ? reader.getCell(dx, dz) : null);
+                surface.buildSurface(px, pz, top, context);
 
-                    int py = ctx.levels.scale(cell.value);
-                    for (ColumnDecorator processor : generator.getBaseDecorators()) {
-                        processor.decorate(ctx.buffer, ctx, px, py, pz);
-                    }
-                });
+                int py = snapshot.height[i];
+                for (ColumnDecorator processor : generator.getBaseDecorators()) {
+                    processor.decorate(context.buffer, context, px, py, pz);
+                }
+            }
 
+            if (fastChunk instanceof FastChunk) {
+                ((FastChunk) fastChunk).publishHeightmaps();
+            } else {
                 FastChunk.updateWGHeightmaps(chunk, context.pos);
             }
         }
@@ -1,9 +1,11 @@
 package com.terraforged.mod.chunk.generator;
 
 import com.terraforged.api.chunk.column.DecoratorContext;
-import com.terraforged.core.tile.chunk.ChunkReader;
 import com.terraforged.mod.chunk.TerraChunkGenerator;
 import com.terraforged.mod.chunk.column.BaseDecorator;
+import com.terraforged.mod.chunk.util.ChunkSession;
+import com.terraforged.mod.chunk.util.ChunkSnapshot;
+import com.terraforged.mod.chunk.util.ColumnBuffer;
 import com.terraforged.mod.chunk.util.FastChunk;
 import com.terraforged.mod.chunk.util.TerraContainer;
 import com.terraforged.mod.feature.TerrainHelper;
@@ -31,18 +33,43 @@ public class TerrainGenerator implements Generator.Terrain {
 
     @Override
     public final void generateTerrain(IWorld world, IChunk chunk) {
-        try (ChunkReader reader = generator.getChunkReader(chunk.getPos().x, chunk.getPos().z)) {
-            TerraContainer container = TerraContainer.getOrCreate(chunk, reader, generator.getBiomeProvider());
-            try (DecoratorContext context = new DecoratorContext(FastChunk.wrap(chunk), levels, terrain, climate)) {
-                reader.iterate(context, (cell, dx, dz, ctx) -> {
-                    int px = ctx.blockX + dx;
-                    int pz = ctx.blockZ + dz;
-                    int py = ctx.levels.scale(cell.value);
-                    ctx.cell = cell;
-                    ctx.biome = container.getNoiseBiome(dx, world.getSeaLevel(), dz);
-                    BaseDecorator.INSTANCE.decorate(ctx.chunk, ctx, px, py, pz);
-                });
-                terrainHelper.flatten(world, chunk);
+        ChunkSession session = ChunkSession.getOrCreate(chunk, generator);
+        ChunkSnapshot snapshot = session.getSnapshot();
+        TerraContainer container = session.getContainer();
+        IChunk fastChunk = session.getFastChunk();
+        try (DecoratorContext context = new DecoratorContext(fastChunk, levels, terrain, climate)) {
+            try (FastChunk.WriteSession writes = FastChunk.beginWrite(fastChunk)) {
+                decorate(world, fastChunk, context, snapshot, container);
+            }
+            // outside of the write session as flattening looks up structure starts in neighbouring chunks, which
+            // may wait on them. Writes go through the fast chunk so that its column tracker sees the structure bases
+            terrainHelper.flatten(world, fastChunk);
+            if (fastChunk instanceof FastChunk) {
+                ((FastChunk) fastChunk).publishHeightmaps();
+            }
+        }
+    }
+
+    // the base decorator reads the columns from the snapshot alone
+    private void decorate(IWorld world, IChunk fastChunk, DecoratorContext context, ChunkSnapshot snapshot, TerraContainer container) {
+        if (fastChunk instanceof FastChunk) {
+            // collect each column's runs & write them to the chunk's sections in bulk
+            ColumnBuffer buffer = new ColumnBuffer();
+            for (int i = 0; i < ChunkSnapshot.SIZE; i++) {
+                int dx = i & 15;
+                int dz = i >> 4;
+                context.setColumn(snapshot, i);
+                context.biome = container.getNoiseBiome(dx, world.getSeaLevel(), dz);
+                BaseDecorator.INSTANCE.decorate(buffer, context, dx, snapshot.height[i], dz);
+            }
+            ((FastChunk) fastChunk).write(buffer);
+        } else {
+            for (int i = 0; i < ChunkSnapshot.SIZE; i++) {
+                int dx = i & 15;
+                int dz = i >> 4;
+                context.setColumn(snapshot, i);
+                context.biome = container.getNoiseBiome(dx, world.getSeaLevel(), dz);
+                BaseDecorator.INSTANCE.decorate(context.chunk, context, context.blockX + dx, snapshot.height[i], context.blockZ + dz);
             }
         }
     }
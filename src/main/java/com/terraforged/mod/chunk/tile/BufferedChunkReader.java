@@ -0,0 +1,99 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.terraforged.mod.chunk.tile;
+
+import com.terraforged.core.cell.Cell;
+import com.terraforged.core.tile.chunk.ChunkReader;
+
+/**
+ * Reads a chunk of a BufferedTile, decoding cells into a single Cell owned by the reader. The cell returned
+ * by getCell is only valid until the next call, callers that need values for longer must copy them.
+ */
+public class BufferedChunkReader implements ChunkReader {
+
+    private final int chunkX;
+    private final int chunkZ;
+    private final BufferedTile tile;
+    private final Cell cell = new Cell();
+
+    private int decoded = -1;
+    private boolean closed = false;
+
+    BufferedChunkReader(BufferedTile tile, int chunkX, int chunkZ) {
+        this.tile = tile;
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+    }
+
+    @Override
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    @Override
+    public int getChunkZ() {
+        return chunkZ;
+    }
+
+    @Override
+    public int getBlockX() {
+        return chunkX << 4;
+    }
+
+    @Override
+    public int getBlockZ() {
+        return chunkZ << 4;
+    }
+
+    @Override
+    public Cell getCell(int dx, int dz) {
+        dx &= 15;
+        dz &= 15;
+        int index = (dz << 4) + dx;
+        if (index != decoded) {
+            if (closed) {
+                throw new IllegalStateException("Chunk reader used after close");
+            }
+            // the codec writes the same subset of fields on every read so none leak between columns
+            tile.readCell(chunkX, chunkZ, dx, dz, cell);
+            decoded = index;
+        }
+        return cell;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            tile.release();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        tile.dispose(chunkX, chunkZ);
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.terraforged.mod.chunk.tile;
+
+import com.terraforged.core.cell.Cell;
+import com.terraforged.core.tile.chunk.ChunkReader;
+import com.terraforged.core.tile.gen.TileCache;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * A heightmap region whose cells are held in encoded form in a ByteBuffer.
+ *
+ * Tiles are reference counted: the creator holds the initial reference, the RegionCache holds one while the
+ * tile is resident and each open chunk reader holds one until closed. Arena-backed tiles hand their buffer
+ * back to the arena when the last reference is released.
+ */
+public class BufferedTile {
+
+    // approximate heap cost of the tile object itself & the disposal flags
+    private static final int OVERHEAD = 128;
+
+    private final int regionX;
+    private final int regionZ;
+    private final int chunkX;
+    private final int chunkZ;
+    private final int chunkSize;
+    private final int blockSize;
+    private final ByteBuffer data;
+    private final CellCodec codec;
+    private final TileArena arena;
+    private final boolean[] disposed;
+    private final Consumer<BufferedTile> listener;
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private int disposedCount = 0;
+
+    public BufferedTile(int regionX, int regionZ, int factor, ByteBuffer data, CellCodec codec, Consumer<BufferedTile> listener) {
+        this(regionX, regionZ, factor, data, codec, null, listener);
+    }
+
+    public BufferedTile(int regionX, int regionZ, int factor, ByteBuffer data, CellCodec codec, TileArena arena, Consumer<BufferedTile> listener) {
+        this.regionX = regionX;
+        this.regionZ = regionZ;
+        this.chunkSize = 1 << factor;
+        this.blockSize = chunkSize << 4;
+        this.chunkX = regionX << factor;
+        this.chunkZ = regionZ << factor;
+        this.data = data;
+        this.codec = codec;
+        this.arena = arena;
+        this.listener = listener;
+        this.disposed = new boolean[chunkSize * chunkSize];
+    }
+
+    public int getRegionX() {
+        return regionX;
+    }
+
+    public int getRegionZ() {
+        return regionZ;
+    }
+
+    /**
+     * The number of bytes this tile occupies
+     */
+    public int getWeight() {
+        return data.capacity() + disposed.length + OVERHEAD;
+    }
+
+    public boolean isOffHeap() {
+        return arena != null;
+    }
+
+    public ByteBuffer getData() {
+        return data.duplicate();
+    }
+
+    /**
+     * Returns a reader for the given chunk. The reader holds a reference to this tile until it is closed
+     */
+    public ChunkReader getChunkReader(int chunkX, int chunkZ) {
+        retain();
+        return new BufferedChunkReader(this, chunkX, chunkZ);
+    }
+
+    public BufferedTile retain() {
+        if (references.getAndIncrement() <= 0) {
+            throw new IllegalStateException("Tile has already been released");
+        }
+        return this;
+    }
+
+    public void release() {
+        if (references.decrementAndGet() == 0 && arena != null) {
+            arena.free(data);
+        }
+    }
+
+    void readCell(int chunkX, int chunkZ, int dx, int dz, Cell cell) {
+        int x = ((chunkX - this.chunkX) << 4) + dx;
+        int z = ((chunkZ - this.chunkZ) << 4) + dz;
+        codec.read(data, z * blockSize + x, cell);
+    }
+
+    void dispose(int chunkX, int chunkZ) {
+        int index = (chunkZ - this.chunkZ) * chunkSize + (chunkX - this.chunkX);
+        synchronized (disposed) {
+            if (disposed[index]) {
+                return;
+            }
+            disposed[index] = true;
+            if (++disposedCount < disposed.length) {
+                return;
+            }
+        }
+        if (listener != null) {
+            listener.accept(this);
+        }
+    }
+
+    public static int getDataSize(int factor, CellCodec codec) {
+        int blockSize = 16 << factor;
+        return blockSize * blockSize * codec.getRecordSize();
+    }
+
+    /**
+     * Encodes the region from the given TileCache into a new tile, backed by the arena if provided or
+     * the heap if not. The region's cells are also fed to the summary builder if provided. If dispose is true
+     * each chunk is disposed once read so that the TileCache releases the region. The caller owns the
+     * initial reference to the returned tile
+     */
+    public static BufferedTile encode(TileCache cache, int regionX, int regionZ, int factor, CellCodec codec, TileArena arena, RegionSummary.Builder summary, Consumer<BufferedTile> listener, boolean dispose) {
+        int chunkSize = 1 << factor;
+        int blockSize = chunkSize << 4;
+        int chunkX = regionX << factor;
+        int chunkZ = regionZ << factor;
+
+        ByteBuffer data = arena != null ? arena.allocate() : ByteBuffer.allocate(getDataSize(factor, codec));
+        for (int cz = 0; cz < chunkSize; cz++) {
+            for (int cx = 0; cx < chunkSize; cx++) {
+                try (ChunkReader reader = cache.getChunk(chunkX + cx, chunkZ + cz)) {
+                    for (int dz = 0; dz < 16; dz++) {
+                        for (int dx = 0; dx < 16; dx++) {
+                            Cell cell = reader.getCell(dx, dz);
+                            int x = (cx << 4) + dx;
+                            int z = (cz << 4) + dz;
+                            codec.write(data, z * blockSize + x, cell);
+                            if (summary != null) {
+                                summary.add(cx, cz, dx, dz, cell);
+                            }
+                        }
+                    }
+                    if (dispose) {
+                        reader.dispose();
+                    }
+                }
+            }
+        }
+
+        return new BufferedTile(regionX, regionZ, factor, data, codec, arena, listener);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.terraforged.mod.chunk.tile;
+
+import com.terraforged.core.cell.Cell;
+import com.terraforged.world.biome.BiomeType;
+import com.terraforged.world.terrain.Terrain;
+import com.terraforged.world.terrain.Terrains;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes the subset of Cell values that the chunk generator consumes into a fixed-width binary record
+ */
+public abstract class CellCodec {
+
+    protected static final BiomeType[] BIOME_TYPES = BiomeType.values();
+
+    private final Terrain[] terrains;
+    private final Map<Terrain, Integer> terrainIds = new IdentityHashMap<>();
+
+    protected CellCodec(Terrains terrains) {
+        List<Terrain> list = new ArrayList<>();
+        for (Terrain terrain : terrains.index) {
+            terrainIds.put(terrain, list.size());
+            list.add(terrain);
+        }
+        this.terrains = list.toArray(new Terrain[0]);
+    }
+
+    /**
+     * Identifies the record layout so that stored data is not read back with a different codec
+     */
+    public abstract int getId();
+
+    public abstract int getRecordSize();
+
+    public abstract void write(ByteBuffer buffer, int index, Cell cell);
+
+    public abstract void read(ByteBuffer buffer, int index, Cell cell);
+
+    /**
+     * Returns the terrain's position in the codec's terrain index, or -1 if it is not indexed
+     */
+    public int indexOf(Terrain terrain) {
+        return terrainIds.getOrDefault(terrain, -1);
+    }
+
+    /**
+     * Returns the terrain at the given position in the codec's terrain index, or null if out of range
+     */
+    public Terrain getTerrain(int index) {
+        if (index < 0 || index >= terrains.length) {
+            return null;
+        }
+        return terrains[index];
+    }
+
+    protected byte getTerrainId(Terrain terrain) {
+        return (byte) terrainIds.getOrDefault(terrain, 0).intValue();
+    }
+
+    protected Terrain getTerrain(byte id) {
+        return terrains[id & 0xFF];
+    }
+
+    public static CellCodec create(Terrains terrains, boolean packed) {
+        if (packed) {
+            return new PackedCellCodec(terrains);
+        }
+        return new FloatCellCodec(terrains);
+    }
+}
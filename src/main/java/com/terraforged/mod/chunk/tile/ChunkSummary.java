@@ -0,0 +1,95 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.terraforged.mod.chunk.tile;
+
+import com.terraforged.world.biome.BiomeType;
+import com.terraforged.world.terrain.Terrain;
+
+/**
+ * A view of one chunk's entry in a RegionSummary
+ */
+public class ChunkSummary {
+
+    private final RegionSummary region;
+    private final int index;
+
+    ChunkSummary(RegionSummary region, int index) {
+        this.region = region;
+        this.index = index;
+    }
+
+    /**
+     * The lowest scaled surface height of the chunk's columns
+     */
+    public int getMinHeight() {
+        return region.minHeight[index];
+    }
+
+    /**
+     * The highest scaled surface height of the chunk's columns
+     */
+    public int getMaxHeight() {
+        return region.maxHeight[index];
+    }
+
+    public int getMeanHeight() {
+        return region.meanHeight[index];
+    }
+
+    /**
+     * The fraction (0-1) of the chunk's columns whose surface lies at or below the water level
+     */
+    public float getWaterCoverage() {
+        return (region.water[index] & 0xFF) / 255F;
+    }
+
+    public boolean hasWater() {
+        return region.water[index] != 0;
+    }
+
+    public boolean hasTerrain(Terrain terrain) {
+        long bit = region.getTerrainBit(terrain);
+        return (region.terrains[index] & bit) != 0;
+    }
+
+    public boolean hasBiomeType(BiomeType type) {
+        return (region.biomeTypes[index] & (1 << type.ordinal())) != 0;
+    }
+
+    public boolean hasExtremeBiome() {
+        return (region.biomeTypes[index] & RegionSummary.EXTREME_TYPES) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ChunkSummary{"
+                + "minHeight=" + getMinHeight()
+                + ", maxHeight=" + getMaxHeight()
+                + ", meanHeight=" + getMeanHeight()
+                + ", water=" + getWaterCoverage()
+                + ", extreme=" + hasExtremeBiome()
+                + '}';
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.terraforged.mod.chunk.tile;
+
+import com.terraforged.core.cell.Cell;
+import com.terraforged.world.terrain.Terrains;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Stores cell values at full float precision
+ */
+public class FloatCellCodec extends CellCodec {
+
+    // 9 floats + terrain id + biome type
+    private static final int RECORD_SIZE = 9 * 4 + 2;
+
+    public FloatCellCodec(Terrains terrains) {
+        super(terrains);
+    }
+
+    @Override
+    public int getId() {
+        return 0;
+    }
+
+    @Override
+    public int getRecordSize() {
+        return RECORD_SIZE;
+    }
+
+    @Override
+    public void write(ByteBuffer buffer, int index, Cell cell) {
+        int offset = index * RECORD_SIZE;
+        buffer.putFloat(offset, cell.value);
+        buffer.putFloat(offset + 4, cell.gradient);
+        buffer.putFloat(offset + 8, cell.sediment);
+        buffer.putFloat(offset + 12, cell.biomeEdge);
+        buffer.putFloat(offset + 16, cell.riverMask);
+        buffer.putFloat(offset + 20, cell.temperature);
+        buffer.putFloat(offset + 24, cell.moisture);
+        buffer.putFloat(offset + 28, cell.biomeIdentity);
+        buffer.putFloat(offset + 32, cell.macroNoise);
+        buffer.put(offset + 36, getTerrainId(cell.terrain));
+        buffer.put(offset + 37, (byte) cell.biomeType.ordinal());
+    }
+
+    @Override
+    public void read(ByteBuffer buffer, int index, Cell cell) {
+        int offset = index * RECORD_SIZE;
+        cell.value = buffer.getFloat(offset);
+        cell.gradient = buffer.getFloat(offset + 4);
+        cell.sediment = buffer.getFloat(offset + 8);
+        cell.biomeEdge = buffer.getFloat(offset + 12);
+        cell.riverMask = buffer.getFloat(offset + 16);
+        cell.temperature = buffer.getFloat(offset + 20);
+        cell.moisture = buffer.getFloat(offset + 24);
+        cell.biomeIdentity = buffer.getFloat(offset + 28);
+        cell.macroNoise = buffer.getFloat(offset + 32);
+        cell.terrain = getTerrain(buffer.get(offset + 36));
+        cell.biomeType = BIOME_TYPES[buffer.get(offset + 37) & 0xFF];
+    }
+}
@@ -0,0 +1,387 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.terraforged.mod.chunk.tile;
+
+import com.terraforged.core.concurrent.thread.ThreadPool;
+import com.terraforged.core.concurrent.thread.ThreadPools;
+import com.terraforged.mod.Log;
+import com.terraforged.mod.chunk.TerraChunkGenerator;
+import com.terraforged.mod.config.PerfDefaults;
+import com.terraforged.mod.config.PerfSettings;
+import net.minecraft.world.gen.ChunkGenerator;
+import net.minecraft.world.server.ServerWorld;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide scheduler for tile generation. All TerraForged contexts share a single ThreadPool for the
+ * TileGenerator (sized by thread_count) instead of creating one each, and queued regions are dispatched
+ * round-robin across the per-world {@link GenerationQueue}s with the number of regions in flight capped at
+ * the pool's thread count, so that one busy world cannot starve another.
+ *
+ * Higher priority tasks are always dispatched before lower priority ones, and chunk requests that are
+ * blocked on the TileCache reduce the number of queued regions allowed in flight so that they are not stuck
+ * behind speculative work.
+ *
+ * Work that follows on from generation (encoding, summarising & storing regions, area queries, LOD tiles)
+ * is run through the executor's own queue so that it counts towards the same cap. It is not held back by
+ * blocked chunk requests, as those may be waiting on exactly that work.
+ *
+ * The scheduler's own threads are bounded by the core count. Threads running a queued region wait on the
+ * shared ThreadPool, so the CPU work in flight is bounded by the pool's thread count plus the follow-on
+ * tasks in flight.
+ */
+@Mod.EventBusSubscriber(bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class GenerationExecutor {
+
+    private static final GenerationExecutor INSTANCE = new GenerationExecutor();
+
+    final Object lock = new Object();
+    private final List<GenerationQueue> queues = new ArrayList<>();
+    private final ThreadPoolExecutor workers = createWorkers();
+    // tasks that are not tied to a world's regions, never closed
+    private final GenerationQueue tasks = createQueue("tasks", Long.MAX_VALUE);
+
+    private int cursor = 0;
+    private int running = 0;
+    private int blocking = 0;
+    private int concurrency = PerfDefaults.THREAD_COUNT;
+    // set once the concurrency has been taken from the settings, after which only reloads & the tuner change it
+    private boolean configured = false;
+    private Lease current;
+
+    public static GenerationExecutor getInstance() {
+        return INSTANCE;
+    }
+
+    public GenerationQueue createQueue(String name, long timeoutMillis) {
+        GenerationQueue queue = new GenerationQueue(name, timeoutMillis, this);
+        synchronized (lock) {
+            queues.add(queue);
+        }
+        return queue;
+    }
+
+    public List<GenerationQueue> getQueues() {
+        synchronized (lock) {
+            return Collections.unmodifiableList(new ArrayList<>(queues));
+        }
+    }
+
+    public int getRunning() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
+    public int getBlocking() {
+        synchronized (lock) {
+            return blocking;
+        }
+    }
+
+    /**
+     * Marks the start of a chunk request that must wait for its region to generate. Queued work is held back
+     * until the request ends.
+     */
+    public void beginBlocking() {
+        synchronized (lock) {
+            blocking++;
+        }
+    }
+
+    public void endBlocking() {
+        synchronized (lock) {
+            blocking--;
+        }
+        drain();
+    }
+
+    /**
+     * Queues a task that is not tied to a region, returning a future that completes once it has run
+     */
+    public CompletableFuture<Void> execute(GenerationQueue.Priority priority, Runnable runnable) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        tasks.execute(priority, () -> {
+            try {
+                runnable.run();
+                future.complete(null);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Runs the tasks on the executor and returns once all of them have completed. The calling thread runs any
+     * task that has not been picked up by a worker yet, so this does not deadlock when called from a worker
+     * and does not wait for a free slot when the executor is saturated.
+     */
+    public void invokeAll(GenerationQueue.Priority priority, List<Runnable> runnables) {
+        CountDownLatch latch = new CountDownLatch(runnables.size());
+        List<Job> jobs = new ArrayList<>(runnables.size());
+        for (Runnable runnable : runnables) {
+            Job job = new Job(runnable, latch);
+            jobs.add(job);
+            tasks.execute(priority, job);
+        }
+
+        for (Job job : jobs) {
+            job.run();
+        }
+
+        boolean interrupted = false;
+        while (latch.getCount() > 0) {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (Job job : jobs) {
+            if (job.error != null) {
+                throw new CompletionException(job.error);
+            }
+        }
+    }
+
+    public int getConcurrency() {
+        synchronized (lock) {
+            return concurrency;
+        }
+    }
+
+    /**
+     * Sets the number of queued regions that may be generated at once. Queued and running work is kept
+     */
+    public void setConcurrency(int concurrency) {
+        synchronized (lock) {
+            this.concurrency = Math.max(1, Math.min(PerfDefaults.MAX_THREAD_COUNT, concurrency));
+        }
+        drain();
+    }
+
+    /**
+     * Returns a lease on the shared ThreadPool matching the given settings. If the settings differ from the
+     * current pool's then a new pool is created & the old one is shut down once its last lease is released.
+     * The concurrency is only taken from the settings on the first lease, so that later world loads do not
+     * undo the tuner's adjustments.
+     */
+    public Lease acquire(PerfSettings settings) {
+        Lease lease;
+        synchronized (lock) {
+            if (current == null || !current.matches(settings)) {
+                current = new Lease(settings);
+                Log.debug("Created shared tile pool: threads={}, batching={}", settings.threadCount, settings.batching);
+            }
+            lease = current;
+            lease.references++;
+            if (!configured) {
+                concurrency = Math.min(PerfDefaults.MAX_THREAD_COUNT, settings.threadCount);
+                configured = true;
+            }
+        }
+        drain();
+        return lease;
+    }
+
+    public void release(Lease lease) {
+        synchronized (lock) {
+            if (--lease.references > 0) {
+                return;
+            }
+            if (lease == current) {
+                current = null;
+            }
+        }
+        // orderly shutdown so already submitted work still completes
+        lease.pool.shutdown();
+    }
+
+    void remove(GenerationQueue queue) {
+        synchronized (lock) {
+            queues.remove(queue);
+        }
+    }
+
+    void drain() {
+        synchronized (lock) {
+            long now = System.nanoTime();
+            while (running < concurrency) {
+                // follow-on tasks may still run while chunk requests are blocked, queued regions may not
+                Worker worker = next(now, running < concurrency - blocking);
+                if (worker == null) {
+                    return;
+                }
+                running++;
+                workers.execute(worker);
+            }
+        }
+    }
+
+    // called under the lock
+    private Worker next(long now, boolean regions) {
+        for (GenerationQueue.Priority priority : GenerationQueue.Priority.values()) {
+            for (int i = 0; i < queues.size(); i++) {
+                cursor = (cursor + 1) % queues.size();
+                GenerationQueue queue = queues.get(cursor);
+                if (!regions && queue != tasks) {
+                    continue;
+                }
+                GenerationQueue.Task task = queue.poll(priority, now);
+                if (task != null) {
+                    return new Worker(queue, task);
+                }
+            }
+        }
+        return null;
+    }
+
+    @SubscribeEvent
+    public static void unload(WorldEvent.Unload event) {
+        if (event.getWorld() instanceof ServerWorld) {
+            ChunkGenerator<?> generator = ((ServerWorld) event.getWorld()).getChunkProvider().getChunkGenerator();
+            if (generator instanceof TerraChunkGenerator) {
+                TerraChunkGenerator terraGenerator = (TerraChunkGenerator) generator;
+                terraGenerator.getTileProvider().getQueue().close();
+                if (terraGenerator.getTileProvider().getWorkers() != null) {
+                    terraGenerator.getTileProvider().getWorkers().close();
+                }
+                terraGenerator.getContext().cacheFactory.close();
+            }
+        }
+    }
+
+    public static class Lease {
+
+        public final ThreadPool pool;
+        private final int threads;
+        private final boolean batching;
+        private int references = 0;
+
+        private Lease(PerfSettings settings) {
+            this.threads = settings.threadCount;
+            this.batching = settings.batching;
+            this.pool = ThreadPools.create(threads, batching);
+        }
+
+        private boolean matches(PerfSettings settings) {
+            return settings.threadCount == threads && settings.batching == batching;
+        }
+    }
+
+    private class Worker implements Runnable {
+
+        private final GenerationQueue queue;
+        private final GenerationQueue.Task task;
+
+        private Worker(GenerationQueue queue, GenerationQueue.Task task) {
+            this.queue = queue;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            try {
+                task.runnable.run();
+            } catch (Throwable t) {
+                Log.err("Tile generation task failed for {}: {}", queue.getName(), t.getMessage());
+            } finally {
+                synchronized (lock) {
+                    running--;
+                    queue.complete(task);
+                }
+                drain();
+            }
+        }
+    }
+
+    // a task of invokeAll that is run by whichever of a worker or the calling thread claims it first
+    private static class Job implements Runnable {
+
+        private final Runnable runnable;
+        private final CountDownLatch latch;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private volatile Throwable error;
+
+        private Job(Runnable runnable, CountDownLatch latch) {
+            this.runnable = runnable;
+            this.latch = latch;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                runnable.run();
+            } catch (Throwable t) {
+                error = t;
+            } finally {
+                latch.countDown();
+            }
+        }
+    }
+
+    // at most one thread per core, idle threads exit after a minute
+    private static ThreadPoolExecutor createWorkers() {
+        int size = PerfDefaults.MAX_THREAD_COUNT;
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new WorkerFactory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static class WorkerFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "TF-Scheduler-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
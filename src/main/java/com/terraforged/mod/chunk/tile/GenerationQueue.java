@@ -0,0 +1,276 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.terraforged.mod.chunk.tile;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A single world's queue of region generation tasks on the shared {@link GenerationExecutor}. Tasks are
+ * held in one FIFO per {@link Priority}. A task queued with an interest check (such as a region queued
+ * ahead of a moving player) is cancelled instead of run if it waited longer than the timeout & its
+ * requester no longer wants it. Tasks without one (regions queued for chunks that are generating, spawn
+ * pre-warming & pre-generation) are always run. All state is guarded by the executor's lock.
+ */
+public class GenerationQueue {
+
+    private final String name;
+    private final long timeout;
+    private final GenerationExecutor executor;
+    private final Map<Long, Task> tasks = new HashMap<>();
+    private final Queue<Task>[] queues = createQueues();
+
+    private int inFlight = 0;
+    private long submitted = 0L;
+    private long completed = 0L;
+    private long cancelled = 0L;
+    private boolean closed = false;
+
+    GenerationQueue(String name, long timeoutMillis, GenerationExecutor executor) {
+        this.name = name;
+        this.timeout = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.executor = executor;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueued() {
+        synchronized (executor.lock) {
+            return tasks.size();
+        }
+    }
+
+    public int getInFlight() {
+        synchronized (executor.lock) {
+            return inFlight;
+        }
+    }
+
+    public long getSubmitted() {
+        synchronized (executor.lock) {
+            return submitted;
+        }
+    }
+
+    public long getCompleted() {
+        synchronized (executor.lock) {
+            return completed;
+        }
+    }
+
+    public long getCancelled() {
+        synchronized (executor.lock) {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Queues the task unless a task for the same region is already queued or running. If the region is
+     * already queued at a lower priority it is promoted, and its timeout restarts. Returns true if the
+     * given runnable was queued. The task is never cancelled by the timeout.
+     */
+    public boolean submit(long id, Priority priority, Runnable runnable) {
+        return submit(id, priority, runnable, null);
+    }
+
+    /**
+     * As {@link #submit(long, Priority, Runnable)}, except that once the task has waited longer than the
+     * timeout it is cancelled if the interest check returns false. The check is called under the executor's
+     * lock so must be cheap & must not block.
+     */
+    public boolean submit(long id, Priority priority, Runnable runnable, BooleanSupplier interest) {
+        synchronized (executor.lock) {
+            if (closed) {
+                return false;
+            }
+
+            Task existing = tasks.get(id);
+            if (existing != null) {
+                if (existing.running || existing.priority.ordinal() <= priority.ordinal()) {
+                    return false;
+                }
+                existing.live = false;
+            } else {
+                submitted++;
+            }
+
+            Task task = new Task(id, priority, runnable, interest);
+            tasks.put(id, task);
+            queues[priority.ordinal()].add(task);
+        }
+        executor.drain();
+        return true;
+    }
+
+    /**
+     * Queues a task that is not tied to a region. Such tasks are neither deduplicated nor cancelled by the
+     * timeout. Returns false if the queue has been closed.
+     */
+    public boolean execute(Priority priority, Runnable runnable) {
+        synchronized (executor.lock) {
+            if (closed) {
+                return false;
+            }
+            submitted++;
+            queues[priority.ordinal()].add(new Task(priority, runnable));
+        }
+        executor.drain();
+        return true;
+    }
+
+    /**
+     * Returns true if a task for the region is queued or running
+     */
+    public boolean contains(long id) {
+        synchronized (executor.lock) {
+            return tasks.containsKey(id);
+        }
+    }
+
+    /**
+     * Removes the region's task if it has not started running yet. Returns true if a task was cancelled.
+     */
+    public boolean cancel(long id) {
+        synchronized (executor.lock) {
+            Task task = tasks.get(id);
+            if (task == null || task.running) {
+                return false;
+            }
+            task.live = false;
+            tasks.remove(id);
+            cancelled++;
+            return true;
+        }
+    }
+
+    /**
+     * Discards any queued tasks & removes the queue from the executor
+     */
+    public void close() {
+        synchronized (executor.lock) {
+            closed = true;
+            tasks.values().removeIf(task -> !task.running);
+            for (Queue<Task> queue : queues) {
+                queue.clear();
+            }
+        }
+        executor.remove(this);
+    }
+
+    // called under the executor's lock
+    Task poll(Priority priority, long now) {
+        Queue<Task> queue = queues[priority.ordinal()];
+        Task task;
+        while ((task = queue.poll()) != null) {
+            if (!task.live) {
+                continue;
+            }
+
+            if (task.interest != null && now - task.timestamp > timeout && !task.interest.getAsBoolean()) {
+                task.live = false;
+                tasks.remove(task.id);
+                cancelled++;
+                continue;
+            }
+
+            task.running = true;
+            inFlight++;
+            return task;
+        }
+        return null;
+    }
+
+    // called under the executor's lock
+    void complete(Task task) {
+        if (task.keyed) {
+            tasks.remove(task.id);
+        }
+        inFlight--;
+        completed++;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Queue<Task>[] createQueues() {
+        Queue<Task>[] queues = new Queue[Priority.values().length];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ArrayDeque<>();
+        }
+        return queues;
+    }
+
+    /**
+     * Priority classes for queued tile work, highest first. Chunk requests that block on the TileCache are
+     * served ahead of all of these.
+     */
+    public enum Priority {
+        /**
+         * Regions queued for chunks that are being generated
+         */
+        DEMAND,
+        /**
+         * Regions queued ahead of moving players
+         */
+        PREFETCH,
+        /**
+         * Explicitly requested pre-generation work. It only runs when nothing else is queued.
+         */
+        BACKGROUND,
+    }
+
+    static class Task {
+
+        final long id;
+        final boolean keyed;
+        final Priority priority;
+        final Runnable runnable;
+        final BooleanSupplier interest;
+        final long timestamp = System.nanoTime();
+
+        private boolean live = true;
+        private boolean running = false;
+
+        private Task(long id, Priority priority, Runnable runnable, BooleanSupplier interest) {
+            this.id = id;
+            this.keyed = true;
+            this.priority = priority;
+            this.runnable = runnable;
+            this.interest = interest;
+        }
+
+        private Task(Priority priority, Runnable runnable) {
+            this.id = 0L;
+            this.keyed = false;
+            this.priority = priority;
+            this.runnable = runnable;
+            this.interest = null;
+        }
+    }
+}
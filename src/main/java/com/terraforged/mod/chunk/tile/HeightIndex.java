@@ -0,0 +1,122 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.terraforged.mod.chunk.tile;
+
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Holds the scaled surface height of every column of recently generated regions so that height queries can
+ * be answered without opening a chunk reader or decoding cells. Bounded to roughly MAX_BYTES, evicting the
+ * least recently used regions first.
+ */
+public class HeightIndex {
+
+    private static final long MAX_BYTES = 64L * 1024L * 1024L;
+
+    private final int shift;
+    private final int mask;
+    private final int blockSize;
+    private final Map<Long, short[]> regions;
+
+    // height queries tend to hit the same region repeatedly so the last one is kept outside of the lock
+    private volatile Region last = null;
+
+    public HeightIndex(int factor) {
+        this.shift = 4 + factor;
+        this.blockSize = 1 << shift;
+        this.mask = blockSize - 1;
+        this.regions = createMap((int) Math.max(1L, MAX_BYTES / getRegionBytes()));
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public int getSize() {
+        synchronized (regions) {
+            return regions.size();
+        }
+    }
+
+    public boolean contains(int regionX, int regionZ) {
+        synchronized (regions) {
+            return regions.containsKey(ChunkPos.asLong(regionX, regionZ));
+        }
+    }
+
+    /**
+     * Returns the scaled surface height of the column, or -1 if its region has not been indexed yet
+     */
+    public int getHeight(int x, int z) {
+        long id = ChunkPos.asLong(x >> shift, z >> shift);
+
+        Region region = last;
+        if (region == null || region.id != id) {
+            short[] heights;
+            synchronized (regions) {
+                heights = regions.get(id);
+            }
+            if (heights == null) {
+                return -1;
+            }
+            last = region = new Region(id, heights);
+        }
+
+        return region.heights[(z & mask) * blockSize + (x & mask)];
+    }
+
+    public void put(int regionX, int regionZ, short[] heights) {
+        synchronized (regions) {
+            regions.put(ChunkPos.asLong(regionX, regionZ), heights);
+        }
+    }
+
+    private long getRegionBytes() {
+        return (long) blockSize * blockSize * 2L;
+    }
+
+    private static Map<Long, short[]> createMap(int capacity) {
+        return new LinkedHashMap<Long, short[]>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, short[]> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    private static class Region {
+
+        private final long id;
+        private final short[] heights;
+
+        private Region(long id, short[] heights) {
+            this.id = id;
+            this.heights = heights;
+        }
+    }
+}
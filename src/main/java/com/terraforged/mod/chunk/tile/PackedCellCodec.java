@@ -0,0 +1,113 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.terraforged.mod.chunk.tile;
+
+import com.terraforged.core.cell.Cell;
+import com.terraforged.world.terrain.Terrains;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Stores cell values as 8 & 16 bit fixed-point numbers in the range 0-1.
+ *
+ * The height (value) and biome identity are kept at 16 bits as they are respectively scaled to block
+ * heights and used to index into weighted biome lists. The remaining values only drive thresholds and
+ * blending in the chunk stages so 8 bits of precision is sufficient.
+ */
+public class PackedCellCodec extends CellCodec {
+
+    // 2 shorts + 7 bytes + terrain id + biome type
+    private static final int RECORD_SIZE = 2 * 2 + 7 + 2;
+
+    private static final float MAX_SHORT = 0xFFFF;
+    private static final float MAX_BYTE = 0xFF;
+
+    public PackedCellCodec(Terrains terrains) {
+        super(terrains);
+    }
+
+    @Override
+    public int getId() {
+        return 1;
+    }
+
+    @Override
+    public int getRecordSize() {
+        return RECORD_SIZE;
+    }
+
+    @Override
+    public void write(ByteBuffer buffer, int index, Cell cell) {
+        int offset = index * RECORD_SIZE;
+        buffer.putShort(offset, toShort(cell.value));
+        buffer.putShort(offset + 2, toShort(cell.biomeIdentity));
+        buffer.put(offset + 4, toByte(cell.gradient));
+        buffer.put(offset + 5, toByte(cell.sediment));
+        buffer.put(offset + 6, toByte(cell.biomeEdge));
+        buffer.put(offset + 7, toByte(cell.riverMask));
+        buffer.put(offset + 8, toByte(cell.temperature));
+        buffer.put(offset + 9, toByte(cell.moisture));
+        buffer.put(offset + 10, toByte(cell.macroNoise));
+        buffer.put(offset + 11, getTerrainId(cell.terrain));
+        buffer.put(offset + 12, (byte) cell.biomeType.ordinal());
+    }
+
+    @Override
+    public void read(ByteBuffer buffer, int index, Cell cell) {
+        int offset = index * RECORD_SIZE;
+        cell.value = fromShort(buffer.getShort(offset));
+        cell.biomeIdentity = fromShort(buffer.getShort(offset + 2));
+        cell.gradient = fromByte(buffer.get(offset + 4));
+        cell.sediment = fromByte(buffer.get(offset + 5));
+        cell.biomeEdge = fromByte(buffer.get(offset + 6));
+        cell.riverMask = fromByte(buffer.get(offset + 7));
+        cell.temperature = fromByte(buffer.get(offset + 8));
+        cell.moisture = fromByte(buffer.get(offset + 9));
+        cell.macroNoise = fromByte(buffer.get(offset + 10));
+        cell.terrain = getTerrain(buffer.get(offset + 11));
+        cell.biomeType = BIOME_TYPES[buffer.get(offset + 12) & 0xFF];
+    }
+
+    private static short toShort(float value) {
+        return (short) Math.round(clamp(value) * MAX_SHORT);
+    }
+
+    private static byte toByte(float value) {
+        return (byte) Math.round(clamp(value) * MAX_BYTE);
+    }
+
+    private static float fromShort(short value) {
+        return (value & 0xFFFF) / MAX_SHORT;
+    }
+
+    private static float fromByte(byte value) {
+        return (value & 0xFF) / MAX_BYTE;
+    }
+
+    private static float clamp(float value) {
+        return value < 0F ? 0F : value > 1F ? 1F : value;
+    }
+}
@@ -0,0 +1,366 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.terraforged.mod.chunk.tile;
+
+import com.terraforged.core.tile.Tile;
+import com.terraforged.core.tile.chunk.ChunkReader;
+import com.terraforged.mod.Log;
+import com.terraforged.mod.chunk.TerraChunkGenerator;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.gen.ChunkGenerator;
+import net.minecraft.world.server.ServerWorld;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the chunk readers handed out per region so that regions left pinned by readers that were never
+ * closed, or by chunks that were never disposed (aborted or unloaded before the features stage), can be
+ * found and reclaimed once they have been idle for longer than the TTL.
+ *
+ * A TileCache region is only released once every one of its chunks has been disposed, so reclaiming a
+ * region disposes the chunks that are still outstanding, through the tile that served its readers so that
+ * the region is never regenerated just to be disposed. Readers still open past the TTL are reported as
+ * leaks (with the stack trace of the acquiring call when leak detection is enabled) and closed.
+ *
+ * Readers held by a chunk's generation session are expected to stay open while the chunk waits on its
+ * neighbours, so regions with open session readers are never closed or reclaimed. A session ends when the
+ * chunk's FEATURES stage releases it, or when the chunk holding it has been unloaded (garbage collected)
+ * part way through generation, in which case its reader is closed by the sweep without being reported.
+ *
+ * With a TTL of zero idle regions are never reclaimed and leaks are not reported, but the sweep still
+ * closes the session readers of unloaded chunks since nothing else would.
+ */
+@Mod.EventBusSubscriber(bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class ReaderTracker {
+
+    // ticks between sweeps for idle regions
+    private static final int SWEEP_INTERVAL = 200;
+
+    private final int factor;
+    private final int chunkCount;
+    private final long ttl;
+    private final boolean leakDetection;
+    private final TileProvider provider;
+    private final Map<Long, Region> regions = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final AtomicLong leaks = new AtomicLong();
+    private final AtomicLong reclaimed = new AtomicLong();
+
+    private int ticks = 0;
+
+    /**
+     * @param ttlMillis the idle time after which a region is reclaimed, or 0 to only close abandoned sessions
+     */
+    public ReaderTracker(TileProvider provider, long ttlMillis, boolean leakDetection) {
+        this.provider = provider;
+        this.factor = provider.getFactor();
+        this.chunkCount = 1 << (factor << 1);
+        this.ttl = ttlMillis;
+        this.leakDetection = leakDetection;
+    }
+
+    /**
+     * The number of regions with open readers or chunks that have not been disposed
+     */
+    public int getPinnedRegions() {
+        int count = 0;
+        for (Region region : regions.values()) {
+            synchronized (region) {
+                if (region.isPinned()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    public int getOpenReaders() {
+        int count = 0;
+        for (Region region : regions.values()) {
+            synchronized (region) {
+                count += region.open.size();
+            }
+        }
+        return count;
+    }
+
+    public long getLeaks() {
+        return leaks.get();
+    }
+
+    public long getReclaimed() {
+        return reclaimed.get();
+    }
+
+    /**
+     * @param tile the TileCache tile that served the reader, or null if it was served from an encoded region
+     * @param session the chunk holding the reader across its generation stages, or null
+     */
+    ChunkReader track(ChunkReader reader, int regionX, int regionZ, Tile tile, Object session) {
+        Throwable origin = leakDetection && session == null ? new Throwable("ChunkReader acquired here") : null;
+        TrackedChunkReader tracked = new TrackedChunkReader(reader, tile, session, this, origin);
+        Region region = regions.computeIfAbsent(ChunkPos.asLong(regionX, regionZ), id -> new Region(regionX, regionZ));
+        synchronized (region) {
+            region.open.add(tracked);
+            if (tile != null && tile != region.tile) {
+                // a different tile means the previous one was released by the TileCache
+                region.tile = tile;
+                region.disposed.clear();
+            }
+            region.lastAccess = tracked.timestamp;
+        }
+        return tracked;
+    }
+
+    /**
+     * Returns the TileCache tile serving the region while it has chunks that have not been disposed (so it is
+     * still held by the TileCache), or null if the region isn't known to be cached
+     */
+    Tile getTile(int regionX, int regionZ) {
+        Region region = regions.get(ChunkPos.asLong(regionX, regionZ));
+        if (region == null) {
+            return null;
+        }
+        synchronized (region) {
+            return region.tile;
+        }
+    }
+
+    void onClose(TrackedChunkReader reader) {
+        Region region = getRegion(reader);
+        if (region != null) {
+            synchronized (region) {
+                region.open.remove(reader);
+                region.lastAccess = System.currentTimeMillis();
+            }
+        }
+    }
+
+    void onDispose(TrackedChunkReader reader) {
+        Region region = getRegion(reader);
+        if (region != null && reader.tile != null) {
+            synchronized (region) {
+                if (reader.tile != region.tile) {
+                    return;
+                }
+                region.disposed.set(getChunkIndex(reader.getChunkX(), reader.getChunkZ()));
+                region.lastAccess = System.currentTimeMillis();
+                if (region.disposed.cardinality() == chunkCount) {
+                    // the TileCache has released the tile so don't keep it reachable
+                    region.tile = null;
+                }
+            }
+        }
+    }
+
+    private Region getRegion(ChunkReader reader) {
+        int regionX = provider.chunkToRegion(reader.getChunkX());
+        int regionZ = provider.chunkToRegion(reader.getChunkZ());
+        return regions.get(ChunkPos.asLong(regionX, regionZ));
+    }
+
+    private int getChunkIndex(int chunkX, int chunkZ) {
+        int mask = (1 << factor) - 1;
+        return ((chunkZ & mask) << factor) + (chunkX & mask);
+    }
+
+    private void tick() {
+        if (++ticks < SWEEP_INTERVAL) {
+            return;
+        }
+        ticks = 0;
+        if (sweeping.compareAndSet(false, true)) {
+            // reclaiming can touch the TileCache so keep it off the server thread
+            GenerationExecutor.getInstance().execute(GenerationQueue.Priority.BACKGROUND, this::sweep).whenComplete((v, t) -> {
+                sweeping.set(false);
+                if (t != null) {
+                    Log.err("Failed to reclaim idle regions: {}", t.getMessage());
+                }
+            });
+        }
+    }
+
+    private void sweep() {
+        if (ttl <= 0) {
+            sweepAbandoned();
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Iterator<Region> iterator = regions.values().iterator();
+        while (iterator.hasNext()) {
+            Region region = iterator.next();
+            List<TrackedChunkReader> leaked = new ArrayList<>();
+            List<TrackedChunkReader> abandoned = new ArrayList<>();
+            boolean session = false;
+            Tile tile;
+            BitSet disposed;
+            synchronized (region) {
+                if (now - region.lastAccess < ttl) {
+                    continue;
+                }
+                for (TrackedChunkReader reader : region.open) {
+                    if (reader.isAbandoned()) {
+                        abandoned.add(reader);
+                    } else if (reader.isSession()) {
+                        session = true;
+                    } else {
+                        leaked.add(reader);
+                    }
+                }
+                if (!session) {
+                    iterator.remove();
+                }
+                tile = region.tile;
+                disposed = (BitSet) region.disposed.clone();
+            }
+
+            for (TrackedChunkReader reader : leaked) {
+                reportLeak(reader, now);
+                reader.close();
+            }
+
+            for (TrackedChunkReader reader : abandoned) {
+                Log.debug("Closing session reader of unloaded chunk {}:{}", reader.getChunkX(), reader.getChunkZ());
+                reader.close();
+            }
+
+            // the region's session readers are still in use so its chunks must not be disposed
+            if (!session && tile != null) {
+                reclaim(region, tile, disposed);
+            }
+        }
+    }
+
+    // closes the session readers of unloaded chunks without reclaiming or reporting anything else
+    private void sweepAbandoned() {
+        Iterator<Region> iterator = regions.values().iterator();
+        while (iterator.hasNext()) {
+            Region region = iterator.next();
+            List<TrackedChunkReader> abandoned = new ArrayList<>();
+            synchronized (region) {
+                for (TrackedChunkReader reader : region.open) {
+                    if (reader.isAbandoned()) {
+                        abandoned.add(reader);
+                    }
+                }
+                if (abandoned.isEmpty() && !region.isPinned()) {
+                    iterator.remove();
+                }
+            }
+
+            for (TrackedChunkReader reader : abandoned) {
+                Log.debug("Closing session reader of unloaded chunk {}:{}", reader.getChunkX(), reader.getChunkZ());
+                reader.close();
+            }
+        }
+    }
+
+    private void reclaim(Region region, Tile tile, BitSet disposed) {
+        int size = 1 << factor;
+        int chunkX = region.x << factor;
+        int chunkZ = region.z << factor;
+        int count = 0;
+        for (int dz = 0; dz < size; dz++) {
+            for (int dx = 0; dx < size; dx++) {
+                if (disposed.get((dz << factor) + dx)) {
+                    continue;
+                }
+                ChunkReader reader = tile.getChunkReader(chunkX + dx, chunkZ + dz);
+                try {
+                    reader.dispose();
+                } finally {
+                    reader.close();
+                }
+                count++;
+            }
+        }
+        reclaimed.incrementAndGet();
+        Log.debug("Reclaimed idle region {}:{} ({} undisposed chunks)", region.x, region.z, count);
+    }
+
+    private void reportLeak(TrackedChunkReader reader, long now) {
+        if (reader.reported) {
+            return;
+        }
+        reader.reported = true;
+        leaks.incrementAndGet();
+
+        long age = (now - reader.timestamp) / 1000L;
+        if (reader.origin != null) {
+            Log.err("ChunkReader for chunk {}:{} was not closed after {}s", reader.getChunkX(), reader.getChunkZ(), age, reader.origin);
+        } else {
+            Log.err("ChunkReader for chunk {}:{} was not closed after {}s (enable reader_leak_detection to see where it was acquired)",
+                    reader.getChunkX(), reader.getChunkZ(), age);
+        }
+    }
+
+    @SubscribeEvent
+    public static void tick(TickEvent.WorldTickEvent event) {
+        if (event.phase == TickEvent.Phase.END && event.world instanceof ServerWorld) {
+            ChunkGenerator<?> generator = ((ServerWorld) event.world).getChunkProvider().getChunkGenerator();
+            if (generator instanceof TerraChunkGenerator) {
+                ReaderTracker tracker = ((TerraChunkGenerator) generator).getTileProvider().getReaderTracker();
+                if (tracker != null) {
+                    tracker.tick();
+                }
+            }
+        }
+    }
+
+    private class Region {
+
+        private final int x;
+        private final int z;
+        // chunks of the tile disposed through readers served by the TileCache
+        private final BitSet disposed = new BitSet(chunkCount);
+        private final Set<TrackedChunkReader> open = new HashSet<>();
+
+        // the TileCache tile serving the region, null if it has been fully disposed or was never used
+        private Tile tile;
+        private long lastAccess = System.currentTimeMillis();
+
+        private Region(int x, int z) {
+            this.x = x;
+            this.z = z;
+        }
+
+        private boolean isPinned() {
+            return !open.isEmpty() || tile != null;
+        }
+    }
+}
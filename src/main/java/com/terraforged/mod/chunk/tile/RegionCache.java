@@ -0,0 +1,219 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.terraforged.mod.chunk.tile;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A byte-budgeted cache of encoded regions using a W-TinyLFU eviction policy.
+ *
+ * New regions enter a small LRU 'window'. Regions leaving the window compete with the least recently
+ * used region of the main segment and only the one that has been requested more often (according to the
+ * frequency sketch) is retained. The main segment is split into 'probation' & 'protected' LRUs so that
+ * regions that are requested repeatedly (such as those around spawn) are not flushed out by a burst of
+ * one-off requests from exploring players.
+ */
+public class RegionCache {
+
+    private static final float WINDOW_RATIO = 0.01F;
+    private static final float PROTECTED_RATIO = 0.8F;
+
+    private final long maxWeight;
+    private final long maxWindowWeight;
+    private final long maxProtectedWeight;
+    private final FrequencySketch sketch;
+
+    // insertion ordered, the first entry being the least recently used
+    private final LinkedHashMap<Long, BufferedTile> window = new LinkedHashMap<>();
+    private final LinkedHashMap<Long, BufferedTile> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<Long, BufferedTile> protect = new LinkedHashMap<>();
+
+    private long windowWeight = 0L;
+    private long probationWeight = 0L;
+    private long protectedWeight = 0L;
+
+    private long hits = 0L;
+    private long misses = 0L;
+    private long evictions = 0L;
+
+    public RegionCache(long maxWeight, int tileWeight) {
+        this.maxWeight = maxWeight;
+        this.maxWindowWeight = Math.max(tileWeight, (long) (maxWeight * WINDOW_RATIO));
+        this.maxProtectedWeight = (long) ((maxWeight - maxWindowWeight) * PROTECTED_RATIO);
+        this.sketch = new FrequencySketch((int) Math.max(1, maxWeight / tileWeight));
+    }
+
+    /**
+     * Returns the cached tile for the given key with a reference acquired on behalf of the caller, or null
+     */
+    public synchronized BufferedTile acquire(long key) {
+        sketch.increment(key);
+
+        BufferedTile tile = window.remove(key);
+        if (tile != null) {
+            window.put(key, tile);
+            hits++;
+            return tile.retain();
+        }
+
+        tile = probation.remove(key);
+        if (tile != null) {
+            // promote to the protected segment
+            probationWeight -= tile.getWeight();
+            protect.put(key, tile);
+            protectedWeight += tile.getWeight();
+            demoteProtected();
+            hits++;
+            return tile.retain();
+        }
+
+        tile = protect.remove(key);
+        if (tile != null) {
+            protect.put(key, tile);
+            hits++;
+            return tile.retain();
+        }
+
+        misses++;
+        return null;
+    }
+
+    /**
+     * Adds the tile to the cache. The cache acquires its own reference which is released on eviction
+     */
+    public synchronized void put(long key, BufferedTile tile) {
+        if (contains(key)) {
+            return;
+        }
+
+        window.put(key, tile.retain());
+        windowWeight += tile.getWeight();
+
+        while (windowWeight > maxWindowWeight && !window.isEmpty()) {
+            Map.Entry<Long, BufferedTile> candidate = removeEldest(window);
+            windowWeight -= candidate.getValue().getWeight();
+            admit(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    public synchronized void invalidate(long key) {
+        BufferedTile tile = window.remove(key);
+        if (tile != null) {
+            windowWeight -= tile.getWeight();
+            tile.release();
+            return;
+        }
+
+        tile = probation.remove(key);
+        if (tile != null) {
+            probationWeight -= tile.getWeight();
+            tile.release();
+            return;
+        }
+
+        tile = protect.remove(key);
+        if (tile != null) {
+            protectedWeight -= tile.getWeight();
+            tile.release();
+        }
+    }
+
+    public synchronized boolean contains(long key) {
+        return window.containsKey(key) || probation.containsKey(key) || protect.containsKey(key);
+    }
+
+    public synchronized long getWeight() {
+        return windowWeight + probationWeight + protectedWeight;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public synchronized int getSize() {
+        return window.size() + probation.size() + protect.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    private void admit(long key, BufferedTile candidate) {
+        long mainWeight = maxWeight - maxWindowWeight;
+        while (probationWeight + protectedWeight + candidate.getWeight() > mainWeight) {
+            LinkedHashMap<Long, BufferedTile> segment = probation.isEmpty() ? protect : probation;
+            if (segment.isEmpty()) {
+                break;
+            }
+
+            Map.Entry<Long, BufferedTile> victim = segment.entrySet().iterator().next();
+            if (sketch.frequency(key) <= sketch.frequency(victim.getKey())) {
+                // the candidate is less popular than the region it would displace
+                candidate.release();
+                evictions++;
+                return;
+            }
+
+            segment.remove(victim.getKey());
+            if (segment == probation) {
+                probationWeight -= victim.getValue().getWeight();
+            } else {
+                protectedWeight -= victim.getValue().getWeight();
+            }
+            victim.getValue().release();
+            evictions++;
+        }
+
+        probation.put(key, candidate);
+        probationWeight += candidate.getWeight();
+    }
+
+    private void demoteProtected() {
+        while (protectedWeight > maxProtectedWeight && !protect.isEmpty()) {
+            Map.Entry<Long, BufferedTile> eldest = removeEldest(protect);
+            protectedWeight -= eldest.getValue().getWeight();
+            probation.put(eldest.getKey(), eldest.getValue());
+            probationWeight += eldest.getValue().getWeight();
+        }
+    }
+
+    private static Map.Entry<Long, BufferedTile> removeEldest(LinkedHashMap<Long, BufferedTile> map) {
+        Iterator<Map.Entry<Long, BufferedTile>> iterator = map.entrySet().iterator();
+        Map.Entry<Long, BufferedTile> eldest = iterator.next();
+        iterator.remove();
+        return eldest;
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.terraforged.mod.chunk.tile;
+
+import com.terraforged.mod.Log;
+import com.terraforged.mod.chunk.TerraChunkGenerator;
+import net.minecraft.entity.player.ServerPlayerEntity;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.gen.ChunkGenerator;
+import net.minecraft.world.server.ServerWorld;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queues the heightmap regions that lie ahead of moving players so that they are (ideally) generated
+ * before the chunk workers ask for them.
+ */
+@Mod.EventBusSubscriber(bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class RegionPrefetcher {
+
+    private static final long EXPIRE_TIME = TimeUnit.SECONDS.toMillis(30);
+    private static final long REPORT_INTERVAL = TimeUnit.MINUTES.toMillis(5);
+    // ignore players moving slower than a sprint (blocks per tick) as vanilla chunk loading keeps up
+    private static final double MIN_SPEED = 0.3;
+    // exponential smoothing of the per-tick velocity samples
+    private static final double SMOOTHING = 0.25;
+
+    private final int factor;
+    private final int lookAhead;
+    private final int maxInFlight;
+    private final TileProvider provider;
+    private final Map<UUID, Tracker> trackers = new HashMap<>();
+    private final Map<Long, Long> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+
+    private long lastReport = System.currentTimeMillis();
+    private long lastReportQueued = 0L;
+
+    public RegionPrefetcher(TileProvider provider, int lookAhead, int maxInFlight) {
+        this.provider = provider;
+        this.factor = provider.getFactor();
+        this.lookAhead = lookAhead;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Records a chunk-generation request for the given region, counting a hit if it was prefetched
+     */
+    public void onRequest(int regionX, int regionZ) {
+        if (inFlight.remove(ChunkPos.asLong(regionX, regionZ)) != null) {
+            hits.incrementAndGet();
+        }
+    }
+
+    public long getQueued() {
+        return queued.get();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getExpired() {
+        return expired.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    public float getHitRate() {
+        long hits = this.hits.get();
+        long total = hits + expired.get();
+        return total == 0 ? 0F : hits / (float) total;
+    }
+
+    public void tick(ServerWorld world) {
+        long now = System.currentTimeMillis();
+        expire(now);
+
+        for (ServerPlayerEntity player : world.getPlayers()) {
+            Tracker tracker = trackers.computeIfAbsent(player.getUniqueID(), id -> new Tracker());
+            tracker.update(player.getPosX(), player.getPosZ(), now);
+            if (tracker.speed() >= MIN_SPEED) {
+                prefetch(tracker, now);
+            }
+        }
+
+        // drop trackers for players that have left the world
+        if (trackers.size() > world.getPlayers().size()) {
+            trackers.values().removeIf(tracker -> now - tracker.timestamp > EXPIRE_TIME);
+        }
+
+        if (now - lastReport > REPORT_INTERVAL) {
+            report(now);
+        }
+    }
+
+    private void report(long now) {
+        lastReport = now;
+        // only report when there has been prefetch activity since the last report
+        if (queued.get() != lastReportQueued) {
+            lastReportQueued = queued.get();
+            Log.info("Region prefetch: queued={}, hits={}, expired={}, hit rate={}%", queued.get(), hits.get(), expired.get(), Math.round(getHitRate() * 100));
+        }
+    }
+
+    private void prefetch(Tracker tracker, long now) {
+        double speed = tracker.speed();
+        double dirX = tracker.velX / speed;
+        double dirZ = tracker.velZ / speed;
+
+        // step through the projected path at half-region intervals so that no region is skipped over
+        int step = Math.max(16, (16 << factor) >> 1);
+        int lastRegionX = Integer.MAX_VALUE;
+        int lastRegionZ = Integer.MAX_VALUE;
+        for (int distance = step; distance <= lookAhead; distance += step) {
+            if (inFlight.size() >= maxInFlight) {
+                return;
+            }
+
+            int blockX = (int) (tracker.x + dirX * distance);
+            int blockZ = (int) (tracker.z + dirZ * distance);
+            int regionX = provider.chunkToRegion(blockX >> 4);
+            int regionZ = provider.chunkToRegion(blockZ >> 4);
+            if (regionX == lastRegionX && regionZ == lastRegionZ) {
+                continue;
+            }
+
+            lastRegionX = regionX;
+            lastRegionZ = regionZ;
+            queue(regionX, regionZ, now);
+        }
+    }
+
+    private void queue(int regionX, int regionZ, long now) {
+        if (provider.isRetained(regionX, regionZ)) {
+            return;
+        }
+        long id = ChunkPos.asLong(regionX, regionZ);
+        if (inFlight.putIfAbsent(id, now) == null) {
+            queued.incrementAndGet();
+            // the region is wanted until it is requested or expires without being reached
+            provider.queueRegion(regionX, regionZ, GenerationQueue.Priority.PREFETCH, () -> inFlight.containsKey(id));
+        }
+    }
+
+    private void expire(long now) {
+        Iterator<Map.Entry<Long, Long>> iterator = inFlight.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().getValue() > EXPIRE_TIME) {
+                iterator.remove();
+                expired.incrementAndGet();
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void tick(TickEvent.WorldTickEvent event) {
+        if (event.phase == TickEvent.Phase.END && event.world instanceof ServerWorld) {
+            ServerWorld world = (ServerWorld) event.world;
+            ChunkGenerator<?> generator = world.getChunkProvider().getChunkGenerator();
+            if (generator instanceof TerraChunkGenerator) {
+                RegionPrefetcher prefetcher = ((TerraChunkGenerator) generator).getPrefetcher();
+                if (prefetcher != null) {
+                    prefetcher.tick(world);
+                }
+            }
+        }
+    }
+
+    private static class Tracker {
+
+        private double x;
+        private double z;
+        private double velX;
+        private double velZ;
+        private long timestamp = -1L;
+
+        private void update(double x, double z, long now) {
+            if (timestamp != -1L) {
+                // player motion isn't tracked server-side so derive velocity from successive positions
+                velX += ((x - this.x) - velX) * SMOOTHING;
+                velZ += ((z - this.z) - velZ) * SMOOTHING;
+            }
+            this.x = x;
+            this.z = z;
+            this.timestamp = now;
+        }
+
+        private double speed() {
+            return Math.sqrt(velX * velX + velZ * velZ);
+        }
+    }
+}
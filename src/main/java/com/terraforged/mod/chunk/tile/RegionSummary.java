@@ -0,0 +1,226 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.terraforged.mod.chunk.tile;
+
+import com.terraforged.core.cell.Cell;
+import com.terraforged.core.tile.chunk.ChunkReader;
+import com.terraforged.mod.biome.provider.NoiseBiomeCache;
+import com.terraforged.world.biome.BiomeType;
+import com.terraforged.world.heightmap.Levels;
+import com.terraforged.world.terrain.Terrain;
+
+import java.util.Arrays;
+
+/**
+ * Per-chunk aggregates of a heightmap region (surface height range, terrain & biome types present and water
+ * coverage) that let callers rule out whole chunks without reading their cells. Values are held in
+ * parallel arrays indexed by the chunk's position within the region.
+ */
+public class RegionSummary {
+
+    static final int EXTREME_TYPES = getExtremeTypes();
+
+    private final int regionX;
+    private final int regionZ;
+    private final int chunkX;
+    private final int chunkZ;
+    private final int chunkSize;
+    private final CellCodec codec;
+
+    final short[] minHeight;
+    final short[] maxHeight;
+    final short[] meanHeight;
+    final long[] terrains;
+    final int[] biomeTypes;
+    final byte[] water;
+
+    private RegionSummary(Builder builder) {
+        this.regionX = builder.regionX;
+        this.regionZ = builder.regionZ;
+        this.chunkX = builder.chunkX;
+        this.chunkZ = builder.chunkZ;
+        this.chunkSize = builder.chunkSize;
+        this.codec = builder.codec;
+
+        int size = chunkSize * chunkSize;
+        this.minHeight = new short[size];
+        this.maxHeight = new short[size];
+        this.meanHeight = new short[size];
+        this.terrains = builder.terrains;
+        this.biomeTypes = builder.biomeTypes;
+        this.water = new byte[size];
+        for (int i = 0; i < size; i++) {
+            minHeight[i] = (short) builder.minHeight[i];
+            maxHeight[i] = (short) builder.maxHeight[i];
+            meanHeight[i] = (short) (builder.heightSum[i] / 256);
+            water[i] = (byte) ((builder.waterCount[i] * 255) / 256);
+        }
+    }
+
+    public int getRegionX() {
+        return regionX;
+    }
+
+    public int getRegionZ() {
+        return regionZ;
+    }
+
+    public int getChunkCount() {
+        return chunkSize * chunkSize;
+    }
+
+    /**
+     * The approximate number of bytes this summary occupies
+     */
+    public int getWeight() {
+        return getChunkCount() * (2 + 2 + 2 + 8 + 4 + 1) + 64;
+    }
+
+    public ChunkSummary getChunk(int chunkX, int chunkZ) {
+        int index = (chunkZ - this.chunkZ) * chunkSize + (chunkX - this.chunkX);
+        return new ChunkSummary(this, index);
+    }
+
+    long getTerrainBit(Terrain terrain) {
+        return getTerrainBit(codec, terrain);
+    }
+
+    // terrains beyond the 64th share the last bit, so may produce false positives but never false negatives
+    private static long getTerrainBit(CellCodec codec, Terrain terrain) {
+        int index = codec.indexOf(terrain);
+        return index < 0 ? 0L : 1L << Math.min(63, index);
+    }
+
+    private static int getExtremeTypes() {
+        int mask = 0;
+        for (BiomeType type : BiomeType.values()) {
+            if (type.isExtreme()) {
+                mask |= 1 << type.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Accumulates the summary from a region's cells. Not thread-safe
+     */
+    public static class Builder {
+
+        private final int regionX;
+        private final int regionZ;
+        private final int chunkX;
+        private final int chunkZ;
+        private final int chunkSize;
+        private final int blockSize;
+        private final Levels levels;
+        private final CellCodec codec;
+        private final int[] minHeight;
+        private final int[] maxHeight;
+        private final int[] heightSum;
+        private final int[] waterCount;
+        private final long[] terrains;
+        private final int[] biomeTypes;
+        private final short[] heights;
+        private final NoiseBiomeCache.Builder biomes;
+
+        Builder(int regionX, int regionZ, int factor, Levels levels, CellCodec codec, NoiseBiomeCache noiseBiomes) {
+            this.regionX = regionX;
+            this.regionZ = regionZ;
+            this.chunkSize = 1 << factor;
+            this.blockSize = chunkSize << 4;
+            this.chunkX = regionX << factor;
+            this.chunkZ = regionZ << factor;
+            this.levels = levels;
+            this.codec = codec;
+
+            int size = chunkSize * chunkSize;
+            this.minHeight = new int[size];
+            this.maxHeight = new int[size];
+            this.heightSum = new int[size];
+            this.waterCount = new int[size];
+            this.terrains = new long[size];
+            this.biomeTypes = new int[size];
+            this.heights = new short[blockSize * blockSize];
+            this.biomes = noiseBiomes != null ? noiseBiomes.builder(regionX, regionZ) : null;
+            Arrays.fill(minHeight, Integer.MAX_VALUE);
+            Arrays.fill(maxHeight, Integer.MIN_VALUE);
+        }
+
+        /**
+         * Adds the cell at the given column (dx, dz) of the chunk at the given offset (in chunks) from the
+         * region's origin
+         */
+        public void add(int offsetX, int offsetZ, int dx, int dz, Cell cell) {
+            int index = offsetZ * chunkSize + offsetX;
+            int height = levels.scale(cell.value);
+            heights[((offsetZ << 4) + dz) * blockSize + (offsetX << 4) + dx] = (short) height;
+            minHeight[index] = Math.min(minHeight[index], height);
+            maxHeight[index] = Math.max(maxHeight[index], height);
+            heightSum[index] += height;
+            if (cell.value <= levels.water) {
+                waterCount[index]++;
+            }
+            terrains[index] |= getTerrainBit(codec, cell.terrain);
+            biomeTypes[index] |= 1 << cell.biomeType.ordinal();
+            if (biomes != null) {
+                biomes.add((offsetX << 4) + dx, (offsetZ << 4) + dz, cell);
+            }
+        }
+
+        public void add(int offsetX, int offsetZ, ChunkReader reader) {
+            for (int dz = 0; dz < 16; dz++) {
+                for (int dx = 0; dx < 16; dx++) {
+                    add(offsetX, offsetZ, dx, dz, reader.getCell(dx, dz));
+                }
+            }
+        }
+
+        /**
+         * The scaled surface height of each of the region's columns, indexed z * blockSize + x
+         */
+        public short[] getHeights() {
+            return heights;
+        }
+
+        /**
+         * The region's quarter-resolution biome grid, or null if the index has no NoiseBiomeCache
+         */
+        public NoiseBiomeCache.Builder getBiomes() {
+            return biomes;
+        }
+
+        public int getRegionX() {
+            return regionX;
+        }
+
+        public int getRegionZ() {
+            return regionZ;
+        }
+
+        public RegionSummary build() {
+            return new RegionSummary(this);
+        }
+    }
+}
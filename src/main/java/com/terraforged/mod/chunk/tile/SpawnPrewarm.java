@@ -0,0 +1,185 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.terraforged.mod.chunk.tile;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.terraforged.mod.Log;
+import com.terraforged.mod.chunk.TerraChunkGenerator;
+import com.terraforged.mod.config.ConfigManager;
+import com.terraforged.mod.config.PerfDefaults;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.dimension.DimensionType;
+import net.minecraft.world.gen.ChunkGenerator;
+import net.minecraft.world.server.ServerWorld;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the heightmap regions around the world spawn on the shared executor while the server is still
+ * starting up, so that the spawn chunks do not each block on their region's generation. Runs at most once
+ * per TileProvider and logs the time taken & number of regions generated once its tasks have drained.
+ */
+@Mod.EventBusSubscriber(bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class SpawnPrewarm {
+
+    private static final List<SpawnPrewarm> active = new ArrayList<>();
+    private static final Set<TileProvider> started = Collections.newSetFromMap(new WeakHashMap<>());
+
+    private final BlockPos spawn;
+    private final TileProvider provider;
+    private final List<Long> regions = new ArrayList<>();
+    private final AtomicInteger generated = new AtomicInteger();
+    private final long start = System.nanoTime();
+
+    private volatile long end = 0L;
+    private volatile boolean ready = false;
+    private boolean reported = false;
+
+    private SpawnPrewarm(BlockPos spawn, TileProvider provider) {
+        this.spawn = spawn;
+        this.provider = provider;
+    }
+
+    /**
+     * Queues the regions within the configured radius of the spawn position. Returns immediately
+     */
+    public static void start(ServerWorld world, BlockPos spawn) {
+        ChunkGenerator<?> generator = world.getChunkProvider().getChunkGenerator();
+        if (!(generator instanceof TerraChunkGenerator)) {
+            return;
+        }
+
+        CommentedConfig config = ConfigManager.PERFORMANCE.get();
+        int radius = config.getIntOrElse("spawn_prewarm_radius", PerfDefaults.SPAWN_PREWARM_RADIUS);
+        radius = Math.min(radius, PerfDefaults.MAX_SPAWN_PREWARM_RADIUS);
+        if (radius <= 0) {
+            return;
+        }
+
+        TileProvider provider = ((TerraChunkGenerator) generator).getTileProvider();
+        synchronized (active) {
+            if (!started.add(provider)) {
+                return;
+            }
+        }
+
+        SpawnPrewarm prewarm = new SpawnPrewarm(spawn, provider);
+        int chunkX = spawn.getX() >> 4;
+        int chunkZ = spawn.getZ() >> 4;
+        int minX = provider.chunkToRegion(chunkX - radius);
+        int minZ = provider.chunkToRegion(chunkZ - radius);
+        int maxX = provider.chunkToRegion(chunkX + radius);
+        int maxZ = provider.chunkToRegion(chunkZ + radius);
+
+        synchronized (active) {
+            active.add(prewarm);
+        }
+
+        for (int rz = minZ; rz <= maxZ; rz++) {
+            for (int rx = minX; rx <= maxX; rx++) {
+                long id = ChunkPos.asLong(rx, rz);
+                if (provider.queueRegion(rx, rz, GenerationQueue.Priority.PREFETCH, () -> prewarm.onGenerated(id))) {
+                    synchronized (prewarm) {
+                        prewarm.regions.add(id);
+                    }
+                }
+            }
+        }
+
+        prewarm.ready = true;
+
+        Log.info("Pre-warming {} heightmap regions within {} chunks of spawn {}", prewarm.regions.size(), radius, spawn);
+        prewarm.checkDone(Long.MIN_VALUE);
+    }
+
+    @SubscribeEvent
+    public static void load(WorldEvent.Load event) {
+        if (!(event.getWorld() instanceof ServerWorld)) {
+            return;
+        }
+
+        ServerWorld world = (ServerWorld) event.getWorld();
+        // new worlds are warmed by the SpawnHandler once their spawn position has been chosen
+        if (world.getDimension().getType() == DimensionType.OVERWORLD && world.getWorldInfo().isInitialized()) {
+            start(world, world.getSpawnPoint());
+        }
+    }
+
+    @SubscribeEvent
+    public static void tick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) {
+            return;
+        }
+
+        // catches warm-ups whose last regions were cancelled (ie generated on demand by the spawn chunks)
+        synchronized (active) {
+            for (int i = active.size() - 1; i >= 0; i--) {
+                active.get(i).checkDone(Long.MIN_VALUE);
+            }
+        }
+    }
+
+    private void onGenerated(long id) {
+        generated.incrementAndGet();
+        end = System.nanoTime();
+        checkDone(id);
+    }
+
+    // the task that is currently completing is still held by the queue so it is excluded by id
+    private void checkDone(long completing) {
+        GenerationQueue queue = provider.getQueue();
+        synchronized (this) {
+            // regions can complete before the rest have been queued
+            if (reported || !ready) {
+                return;
+            }
+            for (long id : regions) {
+                if (id != completing && queue.contains(id)) {
+                    return;
+                }
+            }
+            reported = true;
+        }
+
+        synchronized (active) {
+            active.remove(this);
+        }
+
+        long finish = end == 0L ? System.nanoTime() : end;
+        long millis = TimeUnit.NANOSECONDS.toMillis(finish - start);
+        Log.info("Spawn pre-warm around {} completed in {}ms, generated {} of {} queued regions", spawn, millis, generated.get(), regions.size());
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.terraforged.mod.chunk.tile;
+
+import com.terraforged.core.tile.chunk.ChunkReader;
+import com.terraforged.core.tile.gen.TileCache;
+import com.terraforged.mod.biome.provider.NoiseBiomeCache;
+import com.terraforged.world.heightmap.Levels;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Holds the RegionSummaries of recently generated regions so that a chunk's summary can be looked up in
+ * constant time. Bounded to roughly MAX_CHUNKS chunks, evicting the least recently used regions first.
+ * The regions' column heights & noise biomes, produced in the same pass, are held by the HeightIndex and
+ * NoiseBiomeCache.
+ */
+public class SummaryIndex {
+
+    private static final int MAX_CHUNKS = 1 << 18;
+
+    private final int factor;
+    private final Levels levels;
+    private final CellCodec codec;
+    private final Map<Long, RegionSummary> regions;
+    private final HeightIndex heights;
+
+    private volatile NoiseBiomeCache noiseBiomes;
+
+    public SummaryIndex(int factor, Levels levels, CellCodec codec) {
+        this.factor = factor;
+        this.levels = levels;
+        this.codec = codec;
+        this.regions = createMap(Math.max(1, MAX_CHUNKS >> (factor << 1)));
+        this.heights = new HeightIndex(factor);
+    }
+
+    public HeightIndex getHeights() {
+        return heights;
+    }
+
+    public NoiseBiomeCache getNoiseBiomes() {
+        return noiseBiomes;
+    }
+
+    public void setNoiseBiomes(NoiseBiomeCache noiseBiomes) {
+        this.noiseBiomes = noiseBiomes;
+    }
+
+    public int getSize() {
+        synchronized (regions) {
+            return regions.size();
+        }
+    }
+
+    /**
+     * Returns true if the region's summary, heights & noise biomes (if enabled) are all indexed
+     */
+    public boolean contains(int regionX, int regionZ) {
+        synchronized (regions) {
+            if (!regions.containsKey(ChunkPos.asLong(regionX, regionZ))) {
+                return false;
+            }
+        }
+        NoiseBiomeCache noiseBiomes = this.noiseBiomes;
+        if (noiseBiomes != null && !noiseBiomes.contains(regionX, regionZ)) {
+            return false;
+        }
+        return heights.contains(regionX, regionZ);
+    }
+
+    /**
+     * Returns the summary of the region, or null if it has not been summarised yet
+     */
+    public RegionSummary getRegion(int regionX, int regionZ) {
+        synchronized (regions) {
+            return regions.get(ChunkPos.asLong(regionX, regionZ));
+        }
+    }
+
+    /**
+     * Returns the summary of the chunk, or null if its region has not been summarised yet
+     */
+    public ChunkSummary getChunk(int chunkX, int chunkZ) {
+        RegionSummary region = getRegion(chunkX >> factor, chunkZ >> factor);
+        if (region == null) {
+            return null;
+        }
+        return region.getChunk(chunkX, chunkZ);
+    }
+
+    public RegionSummary.Builder builder(int regionX, int regionZ) {
+        return new RegionSummary.Builder(regionX, regionZ, factor, levels, codec, noiseBiomes);
+    }
+
+    public void put(RegionSummary.Builder builder) {
+        RegionSummary summary = builder.build();
+        synchronized (regions) {
+            regions.put(ChunkPos.asLong(summary.getRegionX(), summary.getRegionZ()), summary);
+        }
+        heights.put(builder.getRegionX(), builder.getRegionZ(), builder.getHeights());
+        NoiseBiomeCache noiseBiomes = this.noiseBiomes;
+        if (noiseBiomes != null && builder.getBiomes() != null) {
+            noiseBiomes.put(builder.getBiomes());
+        }
+    }
+
+    /**
+     * Summarises a region of the TileCache
+     */
+    public RegionSummary.Builder summarise(TileCache cache, int regionX, int regionZ) {
+        int size = 1 << factor;
+        int chunkX = regionX << factor;
+        int chunkZ = regionZ << factor;
+        RegionSummary.Builder builder = builder(regionX, regionZ);
+        for (int cz = 0; cz < size; cz++) {
+            for (int cx = 0; cx < size; cx++) {
+                try (ChunkReader reader = cache.getChunk(chunkX + cx, chunkZ + cz)) {
+                    builder.add(cx, cz, reader);
+                }
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Summarises a tile read back from the tile store
+     */
+    public RegionSummary.Builder summarise(BufferedTile tile) {
+        int size = 1 << factor;
+        int chunkX = tile.getRegionX() << factor;
+        int chunkZ = tile.getRegionZ() << factor;
+        RegionSummary.Builder builder = builder(tile.getRegionX(), tile.getRegionZ());
+        for (int cz = 0; cz < size; cz++) {
+            for (int cx = 0; cx < size; cx++) {
+                try (ChunkReader reader = tile.getChunkReader(chunkX + cx, chunkZ + cz)) {
+                    builder.add(cx, cz, reader);
+                }
+            }
+        }
+        return builder;
+    }
+
+    private static Map<Long, RegionSummary> createMap(int capacity) {
+        return new LinkedHashMap<Long, RegionSummary>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, RegionSummary> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.terraforged.mod.chunk.tile;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates fixed-size direct (off-heap) buffers for tile data. Released buffers are kept for re-use so
+ * that tile memory is recycled deterministically rather than waiting on the garbage collector.
+ *
+ * Only the encoded copies retained by the RegionCache are allocated here. The TileCache builds its tiles on
+ * the heap, so the arena moves long-lived tile memory off the heap rather than the generator's garbage.
+ */
+public class TileArena {
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ArrayDeque<ByteBuffer> pool = new ArrayDeque<>();
+    private final AtomicLong allocated = new AtomicLong();
+
+    public TileArena(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * The number of off-heap bytes currently held by live tiles
+     */
+    public long getAllocated() {
+        return allocated.get();
+    }
+
+    public ByteBuffer allocate() {
+        allocated.addAndGet(bufferSize);
+        synchronized (pool) {
+            ByteBuffer buffer = pool.poll();
+            if (buffer != null) {
+                return buffer;
+            }
+        }
+        return ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    public void free(ByteBuffer buffer) {
+        allocated.addAndGet(-bufferSize);
+        buffer.clear();
+        synchronized (pool) {
+            if (pool.size() < maxPooled) {
+                pool.offer(buffer);
+            }
+        }
+    }
+}
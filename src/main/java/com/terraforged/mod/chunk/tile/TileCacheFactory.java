@@ -0,0 +1,222 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.terraforged.mod.chunk.tile;
+
+import com.terraforged.core.concurrent.thread.ThreadPool;
+import com.terraforged.core.tile.gen.TileCache;
+import com.terraforged.core.tile.gen.TileGenerator;
+import com.terraforged.mod.Log;
+import com.terraforged.mod.config.PerfSettings;
+import com.terraforged.world.WorldGeneratorFactory;
+
+/**
+ * Creates the TileCache for a generator context on the shared {@link GenerationExecutor} pool and keeps hold
+ * of its lease. The TileCache is never replaced while the server is running, so that generated tiles and
+ * queued regions are not lost when the settings are reloaded.
+ *
+ * A reloaded batch_count is applied to regions queued ahead of demand through a separate 'queue' TileCache
+ * built on the same pool, see {@link TileProvider}. The pool's thread count & batching mode, and the tile
+ * size, are fixed once built and apply after a restart.
+ */
+public class TileCacheFactory {
+
+    private final Object lock = new Object();
+    // the settings the TileCache & the shared pool were built with
+    private final PerfSettings settings;
+    // the factory whose lease this one shares, or null if it holds its own
+    private final TileCacheFactory parent;
+
+    private PerfSettings requested;
+    private GenerationExecutor.Lease lease;
+    private TileCache cache;
+    private TileCache queueCache;
+    private int queueBatchCount;
+    private WorldGeneratorFactory factory;
+
+    public TileCacheFactory(PerfSettings settings) {
+        this.settings = settings;
+        this.requested = settings;
+        this.parent = null;
+    }
+
+    /**
+     * Creates a factory that builds its own TileCache on the parent's lease, for copies of a context that
+     * replace its heightmap. Closing either factory releases the shared lease.
+     */
+    public TileCacheFactory(TileCacheFactory parent) {
+        this.settings = parent.settings;
+        this.requested = parent.getRequested();
+        this.parent = parent;
+    }
+
+    /**
+     * The settings that the TileCache was built with
+     */
+    public PerfSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * The most recently loaded settings, some of which may only apply after a restart
+     */
+    public PerfSettings getRequested() {
+        synchronized (lock) {
+            return requested;
+        }
+    }
+
+    /**
+     * The TileCache used to generate regions queued ahead of demand
+     */
+    public TileCache getQueueCache() {
+        synchronized (lock) {
+            return queueCache;
+        }
+    }
+
+    public int getQueueBatchCount() {
+        synchronized (lock) {
+            return queueBatchCount;
+        }
+    }
+
+    /**
+     * Sets the batch count used to generate regions queued from now on
+     */
+    public void setQueueBatchCount(int batchCount) {
+        synchronized (lock) {
+            if (factory == null) {
+                throw new IllegalStateException("TileCache has not been created yet");
+            }
+            if (batchCount == queueBatchCount) {
+                return;
+            }
+            queueBatchCount = batchCount;
+            if (batchCount == settings.batchCount) {
+                queueCache = cache;
+            } else {
+                queueCache = build(factory, lease.pool, settings.tileSize, batchCount);
+            }
+        }
+    }
+
+    /**
+     * Creates the context's TileCache on first call. Copies of the context (see GeneratorContext#copy) call
+     * back into the same factory during setup; they are given the same TileCache rather than building their
+     * own as they are generated from the same settings and seed.
+     *
+     * A factory that would generate different tiles (another factory or heightmap type, as used by contexts
+     * that replace the heightmap) must be given its own TileCacheFactory, see
+     * {@link #TileCacheFactory(TileCacheFactory)}.
+     *
+     * @throws IllegalStateException if the factory is not equivalent to the one the TileCache was built with
+     */
+    public TileCache create(WorldGeneratorFactory factory) {
+        synchronized (lock) {
+            if (cache == null) {
+                this.factory = factory;
+                this.lease = parent != null ? parent.getLease() : GenerationExecutor.getInstance().acquire(settings);
+                this.cache = build(factory, lease.pool, settings.tileSize, settings.batchCount);
+                this.queueCache = cache;
+                this.queueBatchCount = settings.batchCount;
+            } else if (!isEquivalent(this.factory, factory)) {
+                throw new IllegalStateException("TileCache was built for " + describe(this.factory) + " but requested for " + describe(factory));
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * Applies the settings that can change without replacing the TileCache. The thread count is applied to
+     * the shared executor's limit on regions in flight & the batch count to regions queued from now on. The
+     * pool's size & batching mode and the tile size (which determines the region grid) apply after a restart.
+     */
+    public void reload(PerfSettings settings) {
+        synchronized (lock) {
+            if (factory == null) {
+                throw new IllegalStateException("TileCache has not been created yet");
+            }
+
+            if (settings.batchCount != queueBatchCount) {
+                setQueueBatchCount(settings.batchCount);
+                Log.info("Batch count {} applies to regions queued from now on", settings.batchCount);
+            }
+            if (settings.threadCount != this.settings.threadCount || settings.batching != this.settings.batching) {
+                Log.info("Tile pool change (threads={}, batching={}) will apply after a restart", settings.threadCount, settings.batching);
+            }
+            if (settings.tileSize != this.settings.tileSize) {
+                Log.info("Tile size change ({} -> {}) will apply after a restart", this.settings.tileSize, settings.tileSize);
+            }
+            requested = settings;
+        }
+        GenerationExecutor.getInstance().setConcurrency(settings.threadCount);
+    }
+
+    /**
+     * Releases this context's lease on the shared pool. A factory sharing its parent's lease closes the parent
+     */
+    public void close() {
+        if (parent != null) {
+            parent.close();
+            return;
+        }
+        synchronized (lock) {
+            if (lease != null) {
+                GenerationExecutor.getInstance().release(lease);
+                lease = null;
+            }
+        }
+    }
+
+    private GenerationExecutor.Lease getLease() {
+        synchronized (lock) {
+            if (lease == null) {
+                throw new IllegalStateException("TileCache has not been created yet");
+            }
+            return lease;
+        }
+    }
+
+    // copies are built from the same settings & seed so only the types can differ
+    private static boolean isEquivalent(WorldGeneratorFactory a, WorldGeneratorFactory b) {
+        if (a == b) {
+            return true;
+        }
+        return a.getClass() == b.getClass() && a.getHeightmap().getClass() == b.getHeightmap().getClass();
+    }
+
+    private static String describe(WorldGeneratorFactory factory) {
+        return factory.getClass().getName() + " (" + factory.getHeightmap().getClass().getName() + ")";
+    }
+
+    private static TileCache build(WorldGeneratorFactory factory, ThreadPool pool, int tileSize, int batchCount) {
+        return TileGenerator.builder()
+                .pool(pool)
+                .size(tileSize, 2)
+                .batch(batchCount)
+                .factory(factory)
+                .build().toCache();
+    }
+}
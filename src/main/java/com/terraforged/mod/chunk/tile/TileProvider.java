@@ -0,0 +1,364 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.terraforged.mod.chunk.tile;
+
+import com.terraforged.core.tile.Tile;
+import com.terraforged.core.tile.chunk.ChunkReader;
+import com.terraforged.core.tile.gen.TileCache;
+import com.terraforged.mod.Log;
+import com.terraforged.mod.chunk.tile.worker.WorkerPool;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Serves chunk readers from the encoded region cache or the on-disk tile store where possible, falling back
+ * to the generator's TileCache. Regions produced by the TileCache are encoded in the background so that
+ * they can be retained long-term without holding on to the full tile.
+ */
+public class TileProvider {
+
+    private final int factor;
+    private final CellCodec codec;
+    private final TileStore store;
+    private final RegionCache regions;
+    private final TileArena arena;
+    private final GenerationQueue queue;
+    private final SummaryIndex summaries;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+
+    private final TileCache cache;
+    private final TileCacheFactory cacheFactory;
+    private ReaderTracker tracker;
+    private WorkerPool workers;
+
+    public TileProvider(TileCacheFactory cacheFactory, TileCache cache, CellCodec codec, int factor, TileStore store, RegionCache regions, TileArena arena, GenerationQueue queue, SummaryIndex summaries) {
+        this.cache = cache;
+        this.cacheFactory = cacheFactory;
+        this.codec = codec;
+        this.factor = factor;
+        this.store = store;
+        this.regions = regions;
+        this.arena = arena;
+        this.queue = queue;
+        this.summaries = summaries;
+    }
+
+    public CellCodec getCodec() {
+        return codec;
+    }
+
+    public int getFactor() {
+        return factor;
+    }
+
+    public TileCache getCache() {
+        return cache;
+    }
+
+    public RegionCache getRegionCache() {
+        return regions;
+    }
+
+    public TileArena getArena() {
+        return arena;
+    }
+
+    public SummaryIndex getSummaries() {
+        return summaries;
+    }
+
+    public GenerationQueue getQueue() {
+        return queue;
+    }
+
+    public ReaderTracker getReaderTracker() {
+        return tracker;
+    }
+
+    public void setReaderTracker(ReaderTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    public WorkerPool getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(WorkerPool workers) {
+        this.workers = workers;
+    }
+
+    /**
+     * The number of regions queued for generation that have not yet been requested
+     */
+    public int getQueueDepth() {
+        return queue.getQueued();
+    }
+
+    /**
+     * The total number of requests that had to be served by the TileCache
+     */
+    public long getCacheRequests() {
+        return requests.get();
+    }
+
+    /**
+     * The total time requests have spent waiting on the TileCache
+     */
+    public long getCacheWaitNanos() {
+        return waitNanos.get();
+    }
+
+    public int chunkToRegion(int coord) {
+        return cache.chunkToRegion(coord);
+    }
+
+    /**
+     * Returns true if the region can be served without the TileCache generating it
+     */
+    public boolean isRetained(int regionX, int regionZ) {
+        if (regions != null && regions.contains(ChunkPos.asLong(regionX, regionZ))) {
+            return true;
+        }
+        return store != null && store.contains(regionX, regionZ);
+    }
+
+    public void queueRegion(int regionX, int regionZ, GenerationQueue.Priority priority) {
+        queueRegion(regionX, regionZ, priority, (BooleanSupplier) null);
+    }
+
+    /**
+     * Queues the region, see GenerationQueue#submit(long, Priority, Runnable, BooleanSupplier)
+     *
+     * @param interest returns false once the requester no longer needs the region, or null to always run it
+     */
+    public void queueRegion(int regionX, int regionZ, GenerationQueue.Priority priority, BooleanSupplier interest) {
+        if (isRetained(regionX, regionZ)) {
+            return;
+        }
+
+        // background work is handed to the worker processes when available, they write it to the tile store
+        if (priority == GenerationQueue.Priority.BACKGROUND && workers != null && workers.submit(regionX, regionZ)) {
+            return;
+        }
+
+        // generate via the shared executor so that the worlds' regions are scheduled fairly
+        queue.submit(ChunkPos.asLong(regionX, regionZ), priority, () -> generate(regionX, regionZ, priority), interest);
+    }
+
+    /**
+     * Queues the region on the shared executor, running the callback once it has been generated. Returns
+     * false if the region is already retained or queued, in which case the callback is never run.
+     */
+    public boolean queueRegion(int regionX, int regionZ, GenerationQueue.Priority priority, Runnable callback) {
+        if (isRetained(regionX, regionZ)) {
+            return false;
+        }
+
+        return queue.submit(ChunkPos.asLong(regionX, regionZ), priority, () -> {
+            generate(regionX, regionZ, priority);
+            callback.run();
+        });
+    }
+
+    /**
+     * Returns the region's tile if it is known to be held by the TileCache, without generating it, or null
+     */
+    public Tile getCachedRegion(int regionX, int regionZ) {
+        if (tracker == null) {
+            return null;
+        }
+        return tracker.getTile(regionX, regionZ);
+    }
+
+    public Tile getRegion(int regionX, int regionZ) {
+        queue.cancel(ChunkPos.asLong(regionX, regionZ));
+        return getBlocking(() -> cache.getRegion(regionX, regionZ));
+    }
+
+    public ChunkReader getChunk(int chunkX, int chunkZ) {
+        return getChunk(chunkX, chunkZ, null);
+    }
+
+    /**
+     * @param session the chunk holding the reader open across its generation stages, or null
+     */
+    public ChunkReader getChunk(int chunkX, int chunkZ, Object session) {
+        int regionX = chunkToRegion(chunkX);
+        int regionZ = chunkToRegion(chunkZ);
+        // the region is either retained or about to be generated on demand so the queued task is redundant
+        queue.cancel(ChunkPos.asLong(regionX, regionZ));
+        BufferedTile tile = getBufferedRegion(regionX, regionZ);
+        if (tile != null) {
+            if (!summaries.contains(regionX, regionZ)) {
+                summarise(tile);
+            }
+            try {
+                return track(tile.getChunkReader(chunkX, chunkZ), regionX, regionZ, null, session);
+            } finally {
+                tile.release();
+            }
+        }
+        ChunkReader reader = getBlocking(() -> cache.getChunk(chunkX, chunkZ));
+        retain(regionX, regionZ);
+        if (tracker == null) {
+            return reader;
+        }
+        // the open reader pins its tile in the TileCache so this looks up the tile that served it
+        Tile cached = cache.getRegion(regionX, regionZ);
+        return tracker.track(reader, regionX, regionZ, cached, session);
+    }
+
+    private ChunkReader track(ChunkReader reader, int regionX, int regionZ, Tile tile, Object session) {
+        if (tracker == null) {
+            return reader;
+        }
+        return tracker.track(reader, regionX, regionZ, tile, session);
+    }
+
+    private <T> T getBlocking(Supplier<T> supplier) {
+        GenerationExecutor executor = GenerationExecutor.getInstance();
+        long start = System.nanoTime();
+        executor.beginBlocking();
+        try {
+            return supplier.get();
+        } finally {
+            executor.endBlocking();
+            waitNanos.addAndGet(System.nanoTime() - start);
+            requests.incrementAndGet();
+        }
+    }
+
+    // the returned tile is retained & must be released by the caller
+    BufferedTile getBufferedRegion(int regionX, int regionZ) {
+        long id = ChunkPos.asLong(regionX, regionZ);
+        if (regions != null) {
+            BufferedTile tile = regions.acquire(id);
+            if (tile != null) {
+                return tile;
+            }
+        }
+        if (store != null) {
+            BufferedTile tile = store.getRegion(regionX, regionZ);
+            if (tile != null) {
+                return tile;
+            }
+        }
+        return null;
+    }
+
+    // summarises a tile read back from the store, which was encoded by a previous session or a worker
+    private void summarise(BufferedTile tile) {
+        long id = ChunkPos.asLong(tile.getRegionX(), tile.getRegionZ());
+        if (!pending.add(id)) {
+            return;
+        }
+
+        tile.retain();
+        GenerationExecutor.getInstance().execute(GenerationQueue.Priority.PREFETCH, () -> summaries.put(summaries.summarise(tile))).whenComplete((v, t) -> {
+            tile.release();
+            pending.remove(id);
+            if (t != null) {
+                Log.err("Failed to summarise region {}:{}: {}", tile.getRegionX(), tile.getRegionZ(), t.getMessage());
+            }
+        });
+    }
+
+    // regions queued ahead of demand after a batch_count reload are generated by the factory's queue cache
+    // & kept as encoded copies, so that the TileCache serving chunks does not need to be rebuilt
+    private void generate(int regionX, int regionZ, GenerationQueue.Priority priority) {
+        TileCache source = cacheFactory.getQueueCache();
+        if (source == cache || priority == GenerationQueue.Priority.DEMAND || (regions == null && store == null)) {
+            cache.getRegion(regionX, regionZ);
+            return;
+        }
+
+        long id = ChunkPos.asLong(regionX, regionZ);
+        if (isRetained(regionX, regionZ) || !pending.add(id)) {
+            return;
+        }
+        try {
+            encode(source, regionX, regionZ, true);
+        } finally {
+            pending.remove(id);
+        }
+    }
+
+    private void encode(TileCache source, int regionX, int regionZ, boolean dispose) {
+        RegionSummary.Builder summary = summaries.builder(regionX, regionZ);
+        BufferedTile tile = BufferedTile.encode(source, regionX, regionZ, factor, codec, arena, summary, null, dispose);
+        summaries.put(summary);
+        try {
+            if (regions != null) {
+                regions.put(ChunkPos.asLong(regionX, regionZ), tile);
+            }
+            if (store != null) {
+                store.save(tile);
+            }
+        } finally {
+            tile.release();
+        }
+    }
+
+    private void retain(int regionX, int regionZ) {
+        boolean summaryOnly = regions == null && store == null;
+        if (summaryOnly && summaries.contains(regionX, regionZ)) {
+            return;
+        }
+
+        // a region that the RegionCache declined to admit, or has since evicted, is offered again when its
+        // chunks are next served by the TileCache. Each request raises its frequency so that it can win
+        // admission the way any other region does
+        long id = ChunkPos.asLong(regionX, regionZ);
+        if (!pending.add(id)) {
+            return;
+        }
+        if (!summaryOnly && isRetained(regionX, regionZ)) {
+            pending.remove(id);
+            return;
+        }
+
+        GenerationExecutor.getInstance().execute(GenerationQueue.Priority.PREFETCH, () -> {
+            if (summaryOnly) {
+                summaries.put(summaries.summarise(cache, regionX, regionZ));
+                return;
+            }
+
+            encode(cache, regionX, regionZ, false);
+        }).whenComplete((v, t) -> {
+            pending.remove(id);
+            if (t != null) {
+                Log.err("Failed to encode region {}:{}: {}", regionX, regionZ, t.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.terraforged.mod.chunk.tile;
+
+import com.terraforged.api.query.QueryArea;
+import com.terraforged.api.query.QueryBuffer;
+import com.terraforged.core.cell.Cell;
+import com.terraforged.core.tile.Tile;
+import com.terraforged.core.tile.chunk.ChunkReader;
+import com.terraforged.mod.biome.provider.TerraBiomeProvider;
+import com.terraforged.world.heightmap.Levels;
+import com.terraforged.world.terrain.Terrain;
+import net.minecraft.util.registry.Registry;
+import net.minecraft.world.biome.Biome;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves batch area queries. The area is split into one task per chunk-row of each region it overlaps so
+ * that samples are read from the region's encoded tile, or its TileCache tile, where it is cached, and
+ * otherwise computed from the heightmap, in parallel on the shared {@link GenerationExecutor}.
+ *
+ * Heights are the y level of the top terrain block, matching the LOD tiles.
+ */
+public class TileQuery {
+
+    private final int shift;
+    private final Levels levels;
+    private final CellCodec codec;
+    private final TileProvider provider;
+    private final TerraBiomeProvider biomeProvider;
+
+    public TileQuery(TileProvider provider, TerraBiomeProvider biomeProvider, Levels levels) {
+        this.shift = 4 + provider.getFactor();
+        this.levels = levels;
+        this.codec = provider.getCodec();
+        this.provider = provider;
+        this.biomeProvider = biomeProvider;
+    }
+
+    public Terrain getTerrain(int id) {
+        return codec.getTerrain(id);
+    }
+
+    public void query(QueryArea area, QueryBuffer buffer) {
+        buffer.validate(area);
+
+        int maxX = area.getX() + (area.getSamplesX() - 1) * area.getStride();
+        int maxZ = area.getZ() + (area.getSamplesZ() - 1) * area.getStride();
+
+        List<Runnable> tasks = new ArrayList<>();
+        for (int rz = area.getZ() >> shift; rz <= maxZ >> shift; rz++) {
+            for (int rx = area.getX() >> shift; rx <= maxX >> shift; rx++) {
+                int regionX = rx;
+                int regionZ = rz;
+                int minZ = Math.max(area.getZ(), regionZ << shift);
+                int limitZ = Math.min(maxZ, ((regionZ + 1) << shift) - 1);
+                for (int z = minZ; z <= limitZ; z = (z | 15) + 1) {
+                    int startZ = z;
+                    int endZ = Math.min(limitZ, z | 15);
+                    tasks.add(() -> fill(area, buffer, regionX, regionZ, startZ, endZ));
+                }
+            }
+        }
+
+        GenerationExecutor.getInstance().invokeAll(GenerationQueue.Priority.PREFETCH, tasks);
+    }
+
+    // fills the samples of the region that lie within the block rows startZ-endZ (inclusive)
+    private void fill(QueryArea area, QueryBuffer buffer, int regionX, int regionZ, int startZ, int endZ) {
+        int stride = area.getStride();
+        int minSX = firstSample(area.getX(), regionX << shift, stride);
+        int maxSX = Math.min(area.getSamplesX(), firstSample(area.getX(), (regionX + 1) << shift, stride));
+        int minSZ = firstSample(area.getZ(), startZ, stride);
+        int maxSZ = Math.min(area.getSamplesZ(), firstSample(area.getZ(), endZ + 1, stride));
+        if (minSX >= maxSX || minSZ >= maxSZ) {
+            return;
+        }
+
+        BufferedTile tile = provider.getBufferedRegion(regionX, regionZ);
+        if (tile != null) {
+            try {
+                Cell cell = new Cell();
+                for (int sz = minSZ; sz < maxSZ; sz++) {
+                    int z = area.getZ() + sz * stride;
+                    for (int sx = minSX; sx < maxSX; sx++) {
+                        int x = area.getX() + sx * stride;
+                        tile.readCell(x >> 4, z >> 4, x & 15, z & 15, cell);
+                        write(buffer, area.indexOf(sx, sz), cell, x, z);
+                    }
+                }
+            } finally {
+                tile.release();
+            }
+            return;
+        }
+
+        Tile cached = provider.getCachedRegion(regionX, regionZ);
+        if (cached != null) {
+            fill(area, buffer, cached, minSX, maxSX, minSZ, maxSZ);
+            return;
+        }
+
+        for (int sz = minSZ; sz < maxSZ; sz++) {
+            int z = area.getZ() + sz * stride;
+            for (int sx = minSX; sx < maxSX; sx++) {
+                int x = area.getX() + sx * stride;
+                // applyCell only writes the values it computes so each column gets a fresh cell
+                Cell cell = new Cell();
+                biomeProvider.getWorldLookup().applyCell(cell, x, z);
+                write(buffer, area.indexOf(sx, sz), cell, x, z);
+            }
+        }
+    }
+
+    // reads the samples from a TileCache tile, one chunk reader at a time as the samples are within one chunk-row
+    private void fill(QueryArea area, QueryBuffer buffer, Tile tile, int minSX, int maxSX, int minSZ, int maxSZ) {
+        int stride = area.getStride();
+        int chunkZ = (area.getZ() + minSZ * stride) >> 4;
+        int chunkX = Integer.MIN_VALUE;
+        ChunkReader reader = null;
+        try {
+            for (int sx = minSX; sx < maxSX; sx++) {
+                int x = area.getX() + sx * stride;
+                if (x >> 4 != chunkX) {
+                    if (reader != null) {
+                        reader.close();
+                    }
+                    chunkX = x >> 4;
+                    reader = tile.getChunkReader(chunkX, chunkZ);
+                }
+                for (int sz = minSZ; sz < maxSZ; sz++) {
+                    int z = area.getZ() + sz * stride;
+                    write(buffer, area.indexOf(sx, sz), reader.getCell(x & 15, z & 15), x, z);
+                }
+            }
+        } finally {
+            if (reader != null) {
+                reader.close();
+            }
+        }
+    }
+
+    private void write(QueryBuffer buffer, int index, Cell cell, int x, int z) {
+        if (buffer.getHeight() != null) {
+            buffer.getHeight()[index] = levels.scale(cell.value);
+        }
+        if (buffer.getTerrain() != null) {
+            buffer.getTerrain()[index] = codec.indexOf(cell.terrain);
+        }
+        if (buffer.getBiome() != null) {
+            Biome biome = biomeProvider.getBiome(cell, x, z);
+            buffer.getBiome()[index] = Registry.BIOME.getId(biome);
+        }
+        if (buffer.getTemperature() != null) {
+            buffer.getTemperature()[index] = cell.temperature;
+        }
+        if (buffer.getMoisture() != null) {
+            buffer.getMoisture()[index] = cell.moisture;
+        }
+    }
+
+    // the index of the first sample at or after the block coordinate
+    private static int firstSample(int origin, int coord, int stride) {
+        int offset = coord - origin;
+        if (offset <= 0) {
+            return 0;
+        }
+        return (offset + stride - 1) / stride;
+    }
+}
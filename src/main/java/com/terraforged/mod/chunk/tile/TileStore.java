@@ -0,0 +1,357 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.terraforged.mod.chunk.tile;
+
+import com.terraforged.mod.Log;
+import com.terraforged.mod.chunk.TerraContext;
+import com.terraforged.mod.util.nbt.NBTHelper;
+import com.terraforged.mod.util.setup.SetupHooks;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.server.ServerWorld;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Persists generated heightmap tiles under the world save so that they can be memory-mapped back in
+ * after a restart instead of being regenerated. Tiles are stored in a directory named after a
+ * fingerprint of the generator settings so that changing the settings invalidates every stored tile.
+ */
+public class TileStore {
+
+    private static final int MAGIC = 0x54465431;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 8;
+    private static final String EXTENSION = ".tile";
+    // the number of stored tiles kept mapped at once, least recently used tiles are dropped beyond this
+    private static final int MAX_MAPPED = 128;
+    // writes are disk bound so they run on their own thread rather than holding one of the generation slots
+    private static final ExecutorService IO = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "TF-TileStore-IO");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path dir;
+    private final int factor;
+    private final long fingerprint;
+    private final CellCodec codec;
+    private final Set<Long> stored = ConcurrentHashMap.newKeySet();
+    private final Set<Long> saving = ConcurrentHashMap.newKeySet();
+    private final Map<Long, BufferedTile> tiles = new LinkedHashMap<>(16, 0.75F, true);
+
+    private TileStore(Path dir, int factor, long fingerprint, CellCodec codec) {
+        this.dir = dir;
+        this.factor = factor;
+        this.fingerprint = fingerprint;
+        this.codec = codec;
+    }
+
+    public Path getDirectory() {
+        return dir;
+    }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public boolean contains(int regionX, int regionZ) {
+        return stored.contains(ChunkPos.asLong(regionX, regionZ));
+    }
+
+    /**
+     * Returns the stored region, mapping it if it is not already mapped. The returned tile is retained & must
+     * be released by the caller
+     */
+    public BufferedTile getRegion(int regionX, int regionZ) {
+        long id = ChunkPos.asLong(regionX, regionZ);
+        if (!stored.contains(id)) {
+            return null;
+        }
+
+        synchronized (tiles) {
+            BufferedTile tile = tiles.get(id);
+            if (tile != null) {
+                return tile.retain();
+            }
+        }
+
+        BufferedTile tile = load(regionX, regionZ);
+        if (tile == null) {
+            return null;
+        }
+
+        synchronized (tiles) {
+            BufferedTile existing = tiles.get(id);
+            if (existing != null) {
+                // mapped concurrently by another thread
+                tile.release();
+                return existing.retain();
+            }
+            tiles.put(id, tile);
+            evict();
+            return tile.retain();
+        }
+    }
+
+    public void save(BufferedTile tile) {
+        long id = ChunkPos.asLong(tile.getRegionX(), tile.getRegionZ());
+        if (stored.contains(id) || !saving.add(id)) {
+            return;
+        }
+        // hold a reference so that the tile's buffer is not recycled before it has been written
+        tile.retain();
+        CompletableFuture.runAsync(() -> write(tile), IO).whenComplete((v, t) -> {
+            saving.remove(id);
+            tile.release();
+            if (t != null) {
+                Log.err("Failed to save region {}:{}: {}", tile.getRegionX(), tile.getRegionZ(), t.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Records a region written to the store's directory by another process
+     */
+    public void markStored(int regionX, int regionZ) {
+        stored.add(ChunkPos.asLong(regionX, regionZ));
+    }
+
+    private BufferedTile load(int regionX, int regionZ) {
+        Path file = getPath(regionX, regionZ);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (!isValid(buffer)) {
+                Log.debug("Discarding invalid stored tile: {}", file);
+                invalidate(regionX, regionZ);
+                return null;
+            }
+            buffer.position(HEADER_SIZE);
+            return new BufferedTile(regionX, regionZ, factor, buffer.slice(), codec, this::release);
+        } catch (IOException e) {
+            Log.err("Failed to read stored tile {}: {}", file, e.getMessage());
+            invalidate(regionX, regionZ);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the tile to the store on the calling thread
+     */
+    public void write(BufferedTile tile) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(factor);
+        header.putInt(codec.getId());
+        header.putLong(fingerprint);
+        header.flip();
+
+        ByteBuffer data = tile.getData();
+        data.clear();
+
+        int regionX = tile.getRegionX();
+        int regionZ = tile.getRegionZ();
+        Path file = getPath(regionX, regionZ);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer[] buffers = {header, data};
+                while (data.hasRemaining()) {
+                    channel.write(buffers);
+                }
+            }
+            // move into place once complete so a partially written tile is never mapped
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            stored.add(ChunkPos.asLong(regionX, regionZ));
+        } catch (IOException e) {
+            Log.err("Failed to write stored tile {}: {}", file, e.getMessage());
+        }
+    }
+
+    // drops the mapping once all of the tile's chunks have been generated
+    private void release(BufferedTile tile) {
+        boolean removed;
+        synchronized (tiles) {
+            removed = tiles.remove(ChunkPos.asLong(tile.getRegionX(), tile.getRegionZ()), tile);
+        }
+        if (removed) {
+            tile.release();
+        }
+    }
+
+    // called while holding the tiles lock. The store's reference to each evicted tile is released so that
+    // the mapping is dropped once the last open reader is closed
+    private void evict() {
+        Iterator<BufferedTile> iterator = tiles.values().iterator();
+        while (tiles.size() > MAX_MAPPED && iterator.hasNext()) {
+            BufferedTile tile = iterator.next();
+            iterator.remove();
+            tile.release();
+        }
+    }
+
+    private void invalidate(int regionX, int regionZ) {
+        stored.remove(ChunkPos.asLong(regionX, regionZ));
+        try {
+            Files.deleteIfExists(getPath(regionX, regionZ));
+        } catch (IOException e) {
+            Log.err("Failed to delete invalid stored tile {}: {}", getPath(regionX, regionZ), e.getMessage());
+        }
+    }
+
+    private boolean isValid(ByteBuffer buffer) {
+        return buffer.capacity() == getFileSize()
+                && buffer.getInt(0) == MAGIC
+                && buffer.getInt(4) == VERSION
+                && buffer.getInt(8) == factor
+                && buffer.getInt(12) == codec.getId()
+                && buffer.getLong(16) == fingerprint;
+    }
+
+    private int getFileSize() {
+        return HEADER_SIZE + BufferedTile.getDataSize(factor, codec);
+    }
+
+    private Path getPath(int regionX, int regionZ) {
+        return dir.resolve("r." + regionX + "." + regionZ + EXTENSION);
+    }
+
+    private void index() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(path);
+                    continue;
+                }
+                if (!name.endsWith(EXTENSION)) {
+                    continue;
+                }
+                String[] parts = name.substring(0, name.length() - EXTENSION.length()).split("\\.");
+                if (parts.length == 3) {
+                    try {
+                        stored.add(ChunkPos.asLong(Integer.parseInt(parts[1]), Integer.parseInt(parts[2])));
+                    } catch (NumberFormatException ignored) {
+
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens an existing store directory for writing without indexing or clearing it
+     */
+    public static TileStore open(Path dir, int factor, long fingerprint, CellCodec codec) {
+        return new TileStore(dir, factor, fingerprint, codec);
+    }
+
+    public static TileStore create(TerraContext context, CellCodec codec, int factor) {
+        if (!(context.world instanceof ServerWorld)) {
+            return null;
+        }
+
+        ServerWorld world = (ServerWorld) context.world;
+        File worldDir = world.getDimension().getType().getDirectory(world.getSaveHandler().getWorldDirectory());
+        Path root = worldDir.toPath().resolve("terraforged").resolve("tiles");
+        long fingerprint = getFingerprint(context, codec, factor);
+        String name = Long.toHexString(fingerprint);
+        Path dir = root.resolve(name);
+
+        try {
+            Files.createDirectories(dir);
+            clearStale(root, name);
+            TileStore store = new TileStore(dir, factor, fingerprint, codec);
+            store.index();
+            Log.info("Tile store enabled: {} ({} stored regions)", dir, store.stored.size());
+            return store;
+        } catch (IOException e) {
+            Log.err("Unable to create tile store at {}: {}", dir, e.getMessage());
+            return null;
+        }
+    }
+
+    private static long getFingerprint(TerraContext context, CellCodec codec, int factor) {
+        String settings = NBTHelper.serializeCompact(context.terraSettings).toString();
+        // tiles generated with other mods' terrain hooks differ from those generated without them
+        String key = VERSION + ":" + codec.getId() + ":" + factor + ":" + SetupHooks.hasTerrainHooks() + ":" + settings;
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            long fingerprint = 0L;
+            for (int i = 0; i < 8; i++) {
+                fingerprint = (fingerprint << 8) | (hash[i] & 0xFF);
+            }
+            return fingerprint;
+        } catch (NoSuchAlgorithmException e) {
+            return key.hashCode();
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            Log.err("Failed to delete stale tile file {}: {}", file, e.getMessage());
+        }
+    }
+
+    // tiles stored under any other fingerprint were generated with different settings
+    private static void clearStale(Path root, String current) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(root)) {
+            for (Path path : stream) {
+                if (path.getFileName().toString().equals(current)) {
+                    continue;
+                }
+                Log.info("Removing stale tiles: {}", path);
+                try (Stream<Path> files = Files.walk(path)) {
+                    files.sorted(Comparator.reverseOrder()).forEach(TileStore::delete);
+                }
+            }
+        }
+    }
+}
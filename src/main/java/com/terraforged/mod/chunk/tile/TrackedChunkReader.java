@@ -0,0 +1,118 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.terraforged.mod.chunk.tile;
+
+import com.terraforged.core.cell.Cell;
+import com.terraforged.core.tile.Tile;
+import com.terraforged.core.tile.chunk.ChunkReader;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Wraps a ChunkReader handed out by the TileProvider so that the {@link ReaderTracker} sees when it is
+ * closed & disposed.
+ */
+class TrackedChunkReader implements ChunkReader {
+
+    final ChunkReader reader;
+    // the TileCache tile that served the reader, or null if it was served from an encoded region
+    final Tile tile;
+    // the chunk holding the reader across its generation stages, or null if the reader isn't a session's
+    final WeakReference<Object> session;
+    final Throwable origin;
+    final long timestamp = System.currentTimeMillis();
+
+    private final ReaderTracker tracker;
+
+    private boolean closed = false;
+    private boolean disposed = false;
+    boolean reported = false;
+
+    TrackedChunkReader(ChunkReader reader, Tile tile, Object session, ReaderTracker tracker, Throwable origin) {
+        this.reader = reader;
+        this.tile = tile;
+        this.session = session != null ? new WeakReference<>(session) : null;
+        this.tracker = tracker;
+        this.origin = origin;
+    }
+
+    boolean isSession() {
+        return session != null;
+    }
+
+    // the chunk holding the session was unloaded without completing its generation stages
+    boolean isAbandoned() {
+        return session != null && session.get() == null;
+    }
+
+    @Override
+    public int getChunkX() {
+        return reader.getChunkX();
+    }
+
+    @Override
+    public int getChunkZ() {
+        return reader.getChunkZ();
+    }
+
+    @Override
+    public int getBlockX() {
+        return reader.getBlockX();
+    }
+
+    @Override
+    public int getBlockZ() {
+        return reader.getBlockZ();
+    }
+
+    @Override
+    public Cell getCell(int dx, int dz) {
+        return reader.getCell(dx, dz);
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        reader.close();
+        tracker.onClose(this);
+    }
+
+    @Override
+    public void dispose() {
+        synchronized (this) {
+            if (disposed) {
+                return;
+            }
+            disposed = true;
+        }
+        reader.dispose();
+        tracker.onDispose(this);
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.terraforged.mod.chunk.tile.lod;
+
+import com.terraforged.core.cell.Cell;
+import com.terraforged.mod.biome.provider.TerraBiomeProvider;
+import com.terraforged.mod.chunk.tile.GenerationExecutor;
+import com.terraforged.mod.chunk.tile.GenerationQueue;
+import com.terraforged.world.heightmap.Levels;
+import com.terraforged.world.terrain.Terrain;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.biome.Biome;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Generates & caches low resolution tiles of heightmap & climate samples for consumers that scan large areas
+ * coarsely, such as the locate searches & spawn search. Each level's tiles are cached separately from each
+ * other & from the full resolution tiles, bounded to MAX_TILES per level (oldest evicted first).
+ *
+ * Positions are resolved to the nearest sample so values may differ from the full resolution heightmap by
+ * up to half the level's spacing; callers should confirm a match at the exact position. Searches should only
+ * rule a position out when every sample surrounding it disagrees (see mayHaveTerrain & mayHaveBiome), and
+ * only at a level no coarser than their own spacing (see LodLevel#forSpacing) as features narrower than the
+ * level's spacing can fall between its samples.
+ */
+public class LodCache {
+
+    private static final int MAX_TILES = 64;
+    private static final int ROWS_PER_TASK = 8;
+
+    private final Levels levels;
+    private final TerraBiomeProvider biomeProvider;
+    private final Level[] caches = new Level[LodLevel.values().length];
+
+    public LodCache(TerraBiomeProvider biomeProvider) {
+        this.levels = biomeProvider.getContext().levels;
+        this.biomeProvider = biomeProvider;
+        for (LodLevel level : LodLevel.values()) {
+            caches[level.ordinal()] = new Level();
+        }
+    }
+
+    public int getHeight(LodLevel level, int x, int z) {
+        int sx = toSample(level, x);
+        int sz = toSample(level, z);
+        return getTile(level, sx, sz).getHeight(indexOf(sx, sz));
+    }
+
+    public Terrain getTerrain(LodLevel level, int x, int z) {
+        int sx = toSample(level, x);
+        int sz = toSample(level, z);
+        return getTile(level, sx, sz).getTerrain(indexOf(sx, sz));
+    }
+
+    public Biome getBiome(LodLevel level, int x, int z) {
+        int sx = toSample(level, x);
+        int sz = toSample(level, z);
+        return getTile(level, sx, sz).getBiome(indexOf(sx, sz));
+    }
+
+    /**
+     * Returns false only if none of the four samples surrounding the position have the terrain type
+     */
+    public boolean mayHaveTerrain(LodLevel level, int x, int z, Terrain terrain) {
+        int sx = x >> level.shift;
+        int sz = z >> level.shift;
+        for (int dz = 0; dz < 2; dz++) {
+            for (int dx = 0; dx < 2; dx++) {
+                if (getTile(level, sx + dx, sz + dz).getTerrain(indexOf(sx + dx, sz + dz)) == terrain) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns false only if none of the four samples surrounding the position have the biome
+     */
+    public boolean mayHaveBiome(LodLevel level, int x, int z, Biome biome) {
+        int sx = x >> level.shift;
+        int sz = z >> level.shift;
+        for (int dz = 0; dz < 2; dz++) {
+            for (int dx = 0; dx < 2; dx++) {
+                if (getTile(level, sx + dx, sz + dz).getBiome(indexOf(sx + dx, sz + dz)) == biome) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public int getSize(LodLevel level) {
+        return caches[level.ordinal()].tiles.size();
+    }
+
+    private LodTile getTile(LodLevel level, int sampleX, int sampleZ) {
+        int tileX = sampleX >> LodTile.SHIFT;
+        int tileZ = sampleZ >> LodTile.SHIFT;
+        long id = ChunkPos.asLong(tileX, tileZ);
+        Level cache = caches[level.ordinal()];
+        LodTile tile = cache.tiles.get(id);
+        if (tile == null) {
+            // tiles are generated outside of the map so concurrent misses on different tiles do not contend,
+            // a concurrent miss on the same tile may generate it twice but only one copy is kept
+            tile = generate(level, tileX, tileZ);
+            LodTile existing = cache.tiles.putIfAbsent(id, tile);
+            if (existing != null) {
+                return existing;
+            }
+            cache.order.add(id);
+            while (cache.tiles.size() > MAX_TILES) {
+                Long eldest = cache.order.poll();
+                if (eldest == null) {
+                    break;
+                }
+                cache.tiles.remove(eldest);
+            }
+        }
+        return tile;
+    }
+
+    private LodTile generate(LodLevel level, int tileX, int tileZ) {
+        LodTile tile = new LodTile(level, tileX, tileZ);
+        List<Runnable> tasks = new ArrayList<>(LodTile.SIZE / ROWS_PER_TASK);
+        for (int minRow = 0; minRow < LodTile.SIZE; minRow += ROWS_PER_TASK) {
+            int start = minRow;
+            tasks.add(() -> generateRows(tile, start, start + ROWS_PER_TASK));
+        }
+        GenerationExecutor.getInstance().invokeAll(GenerationQueue.Priority.PREFETCH, tasks);
+        return tile;
+    }
+
+    private void generateRows(LodTile tile, int minRow, int maxRow) {
+        LodLevel level = tile.getLevel();
+        int sampleX = tile.getTileX() << LodTile.SHIFT;
+        int sampleZ = tile.getTileZ() << LodTile.SHIFT;
+        for (int dz = minRow; dz < maxRow; dz++) {
+            int z = (sampleZ + dz) << level.shift;
+            for (int dx = 0; dx < LodTile.SIZE; dx++) {
+                int x = (sampleX + dx) << level.shift;
+                int index = (dz << LodTile.SHIFT) + dx;
+                Cell cell = new Cell();
+                biomeProvider.getWorldLookup().applyCell(cell, x, z);
+                tile.height[index] = (short) levels.scale(cell.value);
+                tile.temperature[index] = cell.temperature;
+                tile.moisture[index] = cell.moisture;
+                tile.terrain[index] = cell.terrain;
+                tile.biome[index] = biomeProvider.getBiome(cell, x, z);
+            }
+        }
+    }
+
+    // the nearest sample to the block coordinate
+    private static int toSample(LodLevel level, int coord) {
+        return (coord + (level.spacing >> 1)) >> level.shift;
+    }
+
+    private static int indexOf(int sampleX, int sampleZ) {
+        return ((sampleZ & LodTile.MASK) << LodTile.SHIFT) + (sampleX & LodTile.MASK);
+    }
+
+    private static class Level {
+
+        private final Map<Long, LodTile> tiles = new ConcurrentHashMap<>();
+        private final Queue<Long> order = new ConcurrentLinkedQueue<>();
+    }
+}
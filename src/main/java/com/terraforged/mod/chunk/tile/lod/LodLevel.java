@@ -0,0 +1,58 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.terraforged.mod.chunk.tile.lod;
+
+/**
+ * The sample spacings that LOD tiles can be generated at
+ */
+public enum LodLevel {
+    LOD_4(2),
+    LOD_8(3),
+    LOD_16(4),
+    ;
+
+    public final int shift;
+    public final int spacing;
+
+    LodLevel(int shift) {
+        this.shift = shift;
+        this.spacing = 1 << shift;
+    }
+
+    /**
+     * Returns the coarsest level whose spacing does not exceed the given spacing (in blocks), or null if
+     * the spacing is finer than the finest level. Features that a search of that spacing can find are then
+     * at least as wide as the level's samples
+     */
+    public static LodLevel forSpacing(int spacing) {
+        LodLevel result = null;
+        for (LodLevel level : values()) {
+            if (level.spacing <= spacing) {
+                result = level;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.terraforged.mod.chunk.tile.lod;
+
+import com.terraforged.world.terrain.Terrain;
+import net.minecraft.world.biome.Biome;
+
+/**
+ * A SIZE x SIZE grid of heightmap & climate samples taken every level.spacing blocks
+ */
+public class LodTile {
+
+    public static final int SHIFT = 6;
+    public static final int SIZE = 1 << SHIFT;
+    public static final int MASK = SIZE - 1;
+
+    private final LodLevel level;
+    private final int tileX;
+    private final int tileZ;
+
+    final short[] height = new short[SIZE * SIZE];
+    final float[] temperature = new float[SIZE * SIZE];
+    final float[] moisture = new float[SIZE * SIZE];
+    final Terrain[] terrain = new Terrain[SIZE * SIZE];
+    final Biome[] biome = new Biome[SIZE * SIZE];
+
+    LodTile(LodLevel level, int tileX, int tileZ) {
+        this.level = level;
+        this.tileX = tileX;
+        this.tileZ = tileZ;
+    }
+
+    public LodLevel getLevel() {
+        return level;
+    }
+
+    public int getTileX() {
+        return tileX;
+    }
+
+    public int getTileZ() {
+        return tileZ;
+    }
+
+    /**
+     * The scaled surface height of the sample
+     */
+    public int getHeight(int index) {
+        return height[index];
+    }
+
+    public float getTemperature(int index) {
+        return temperature[index];
+    }
+
+    public float getMoisture(int index) {
+        return moisture[index];
+    }
+
+    public Terrain getTerrain(int index) {
+        return terrain[index];
+    }
+
+    public Biome getBiome(int index) {
+        return biome[index];
+    }
+}
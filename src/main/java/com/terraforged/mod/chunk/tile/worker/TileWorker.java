@@ -0,0 +1,155 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.terraforged.mod.chunk.tile.worker;
+
+import com.google.gson.JsonParser;
+import com.terraforged.core.concurrent.thread.ThreadPool;
+import com.terraforged.core.concurrent.thread.ThreadPools;
+import com.terraforged.core.tile.gen.TileCache;
+import com.terraforged.core.tile.gen.TileGenerator;
+import com.terraforged.mod.chunk.settings.TerraSettings;
+import com.terraforged.mod.chunk.tile.BufferedTile;
+import com.terraforged.mod.chunk.tile.CellCodec;
+import com.terraforged.mod.chunk.tile.TileStore;
+import com.terraforged.mod.util.nbt.NBTHelper;
+import com.terraforged.world.GeneratorContext;
+import com.terraforged.world.terrain.Terrains;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Entry point of a tile worker process. Connects back to the server on the given port, builds a heightmap
+ * generator from the settings it is sent, and generates the requested regions straight into the server's
+ * tile store. The worker exits when the server closes the connection.
+ */
+public class TileWorker {
+
+    private final DataOutputStream out;
+    private final TileCache cache;
+    private final TileStore store;
+    private final CellCodec codec;
+    private final int factor;
+
+    private TileWorker(DataOutputStream out, TileCache cache, TileStore store, CellCodec codec, int factor) {
+        this.out = out;
+        this.cache = cache;
+        this.store = store;
+        this.codec = codec;
+        this.factor = factor;
+    }
+
+    private void generate(int regionX, int regionZ) {
+        String error = null;
+        try {
+            BufferedTile tile = BufferedTile.encode(cache, regionX, regionZ, factor, codec, null, null, null, true);
+            try {
+                store.write(tile);
+            } finally {
+                tile.release();
+            }
+        } catch (Throwable t) {
+            error = t.toString();
+        }
+
+        synchronized (out) {
+            try {
+                out.writeByte(WorkerProtocol.DONE);
+                out.writeInt(regionX);
+                out.writeInt(regionZ);
+                out.writeBoolean(error == null);
+                if (error != null) {
+                    WorkerProtocol.writeString(out, error);
+                }
+                out.flush();
+            } catch (IOException e) {
+                System.exit(1);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = Integer.parseInt(args[0]);
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            if (in.readByte() != WorkerProtocol.INIT) {
+                throw new IOException("Expected INIT");
+            }
+
+            String json = WorkerProtocol.readString(in);
+            int factor = in.readInt();
+            boolean packed = in.readBoolean();
+            String dir = WorkerProtocol.readString(in);
+            long fingerprint = in.readLong();
+            int threads = in.readInt();
+
+            TerraSettings settings = new TerraSettings();
+            NBTHelper.deserialize(NBTHelper.fromJson(new JsonParser().parse(json)), settings);
+
+            // terrain setup hooks from other mods are not available outside of the game, the server does not
+            // start workers when any are registered
+            GeneratorContext context = GeneratorContext.createNoCache(Terrains.create(settings), settings);
+            ThreadPool pool = ThreadPools.create(threads, false);
+            TileCache cache = TileGenerator.builder()
+                    .pool(pool)
+                    .size(factor, 2)
+                    .factory(context.factory)
+                    .build().toCache();
+
+            CellCodec codec = CellCodec.create(context.terrain, packed);
+            TileStore store = TileStore.open(Paths.get(dir), factor, fingerprint, codec);
+            TileWorker worker = new TileWorker(out, cache, store, codec, factor);
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                while (true) {
+                    if (in.readByte() != WorkerProtocol.GENERATE) {
+                        throw new IOException("Expected GENERATE");
+                    }
+                    int regionX = in.readInt();
+                    int regionZ = in.readInt();
+                    executor.execute(() -> worker.generate(regionX, regionZ));
+                }
+            } catch (EOFException e) {
+                // server closed the connection
+            } finally {
+                executor.shutdownNow();
+                pool.shutdown();
+            }
+        }
+        System.exit(0);
+    }
+}
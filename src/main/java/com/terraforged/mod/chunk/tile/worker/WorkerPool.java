@@ -0,0 +1,297 @@
+/*
+ *
+ * MIT License
+ *
+ * Copyright (c) 2020 TerraForged
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.terraforged.mod.chunk.tile.worker;
+
+import com.terraforged.core.tile.gen.TileGenerator;
+import com.terraforged.mod.Log;
+import com.terraforged.mod.chunk.TerraContext;
+import com.terraforged.mod.chunk.tile.TileStore;
+import com.terraforged.mod.util.nbt.NBTHelper;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.util.math.ChunkPos;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Launches local worker JVMs that generate heightmap regions into the tile store, keeping the cost of
+ * bulk generation (and its garbage) out of the server process. Regions are handed to the worker with the
+ * fewest outstanding requests; completed regions are picked up from the store's memory-mapped files.
+ */
+public class WorkerPool {
+
+    // how long to wait for a launched worker to connect back
+    private static final int CONNECT_TIMEOUT = 30_000;
+
+    private final TileStore store;
+    private final List<Connection> connections = new ArrayList<>();
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    private WorkerPool(TileStore store) {
+        this.store = store;
+    }
+
+    public int getWorkerCount() {
+        synchronized (connections) {
+            return connections.size();
+        }
+    }
+
+    public int getPending() {
+        return pending.size();
+    }
+
+    /**
+     * Sends the region to a worker. Returns false if no worker is available to take it.
+     */
+    public boolean submit(int regionX, int regionZ) {
+        long id = ChunkPos.asLong(regionX, regionZ);
+        if (!pending.add(id)) {
+            return true;
+        }
+
+        while (true) {
+            Connection connection = next();
+            if (connection == null) {
+                pending.remove(id);
+                return false;
+            }
+            if (connection.send(regionX, regionZ)) {
+                return true;
+            }
+        }
+    }
+
+    public void close() {
+        List<Connection> list;
+        synchronized (connections) {
+            list = new ArrayList<>(connections);
+        }
+        for (Connection connection : list) {
+            connection.close();
+        }
+        pending.clear();
+    }
+
+    private Connection next() {
+        synchronized (connections) {
+            Connection best = null;
+            for (Connection connection : connections) {
+                if (best == null || connection.assigned.size() < best.assigned.size()) {
+                    best = connection;
+                }
+            }
+            return best;
+        }
+    }
+
+    private void onDone(int regionX, int regionZ, String error) {
+        pending.remove(ChunkPos.asLong(regionX, regionZ));
+        if (error == null) {
+            store.markStored(regionX, regionZ);
+        } else {
+            Log.err("Tile worker failed to generate region {}:{}: {}", regionX, regionZ, error);
+        }
+    }
+
+    private class Connection implements Runnable {
+
+        private final Process process;
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        // regions sent to the worker that it has not yet reported back
+        private final Set<Long> assigned = new HashSet<>();
+
+        private Connection(Process process, Socket socket) throws IOException {
+            this.process = process;
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        private boolean send(int regionX, int regionZ) {
+            synchronized (connections) {
+                assigned.add(ChunkPos.asLong(regionX, regionZ));
+            }
+            try {
+                synchronized (out) {
+                    out.writeByte(WorkerProtocol.GENERATE);
+                    out.writeInt(regionX);
+                    out.writeInt(regionZ);
+                    out.flush();
+                }
+                return true;
+            } catch (IOException e) {
+                Log.err("Lost connection to tile worker: {}", e.getMessage());
+                close();
+                return false;
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    if (in.readByte() != WorkerProtocol.DONE) {
+                        throw new IOException("Expected DONE");
+                    }
+                    int regionX = in.readInt();
+                    int regionZ = in.readInt();
+                    String error = in.readBoolean() ? null : WorkerProtocol.readString(in);
+                    synchronized (connections) {
+                        assigned.remove(ChunkPos.asLong(regionX, regionZ));
+                    }
+                    onDone(regionX, regionZ, error);
+                }
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    Log.err("Lost connection to tile worker: {}", e.getMessage());
+                }
+            } finally {
+                close();
+            }
+        }
+
+        private void close() {
+            synchronized (connections) {
+                connections.remove(this);
+                // unfinished regions will be generated in-process when requested
+                pending.removeAll(assigned);
+                assigned.clear();
+            }
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+
+            }
+            process.destroy();
+        }
+    }
+
+    public static WorkerPool create(TerraContext context, TileStore store, int workers, int memory, boolean packed) {
+        String classPath = getClassPath();
+        if (classPath == null) {
+            return null;
+        }
+
+        WorkerPool pool = new WorkerPool(store);
+        CompoundNBT settings = NBTHelper.serializeCompact(context.terraSettings);
+        String json = NBTHelper.toJson(settings).toString();
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / workers);
+
+        try (ServerSocket server = new ServerSocket(0, workers, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(CONNECT_TIMEOUT);
+            for (int i = 0; i < workers; i++) {
+                Process process = launch(classPath, server.getLocalPort(), memory);
+                Socket socket = server.accept();
+                Connection connection = pool.new Connection(process, socket);
+
+                synchronized (connection.out) {
+                    connection.out.writeByte(WorkerProtocol.INIT);
+                    WorkerProtocol.writeString(connection.out, json);
+                    connection.out.writeInt(context.tileSize);
+                    connection.out.writeBoolean(packed);
+                    WorkerProtocol.writeString(connection.out, store.getDirectory().toAbsolutePath().toString());
+                    connection.out.writeLong(store.getFingerprint());
+                    connection.out.writeInt(threads);
+                    connection.out.flush();
+                }
+
+                synchronized (pool.connections) {
+                    pool.connections.add(connection);
+                }
+
+                Thread thread = new Thread(connection, "TF-TileWorker-" + i);
+                thread.setDaemon(true);
+                thread.start();
+            }
+        } catch (IOException e) {
+            Log.err("Failed to start tile workers: {}", e.getMessage());
+        }
+
+        if (pool.getWorkerCount() == 0) {
+            pool.close();
+            return null;
+        }
+
+        Log.info("Started {} tile worker(s)", pool.getWorkerCount());
+        return pool;
+    }
+
+    private static Process launch(String classPath, int port, int memory) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.add("-Xmx" + memory + "M");
+        command.add("-cp");
+        command.add(classPath);
+        command.add(TileWorker.class.getName());
+        command.add(Integer.toString(port));
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    // the game's classes are loaded through the mod launcher so add the jars the worker needs explicitly.
+    // returns null if any of them isn't a plain file on disk (ie modjar:// or union locations in production)
+    // as the worker would only fail later with a ClassNotFoundException
+    private static String getClassPath() {
+        Set<String> entries = new LinkedHashSet<>();
+        for (Class<?> type : new Class<?>[]{WorkerPool.class, TileGenerator.class, CompoundNBT.class, com.google.gson.JsonParser.class}) {
+            CodeSource source = type.getProtectionDomain().getCodeSource();
+            if (source == null || source.getLocation() == null) {
+                Log.warn("Tile workers disabled: unable to locate the classes of {}", type.getName());
+                return null;
+            }
+            try {
+                entries.add(new File(source.getLocation().toURI()).getAbsolutePath());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                Log.warn("Tile workers disabled: unable to add {} to the worker classpath", source.getLocation());
+                return null;
+            }
+        }
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                entries.add(entry);
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+}
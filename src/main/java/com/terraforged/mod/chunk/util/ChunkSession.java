@@ -0,0 +1,103 @@
+package com.terraforged.mod.chunk.util;
+
+import com.terraforged.core.tile.chunk.ChunkReader;
+import com.terraforged.mod.chunk.TerraContext;
+import com.terraforged.mod.chunk.TerraChunkGenerator;
+import net.minecraft.world.biome.BiomeContainer;
+import net.minecraft.world.chunk.ChunkPrimer;
+import net.minecraft.world.chunk.IChunk;
+
+/**
+ * Holds the per-chunk state shared by the generation stages of a single chunk, from BIOMES through to
+ * FEATURES, so that each stage doesn't re-acquire the chunk reader or re-resolve the biome container.
+ *
+ * The session is attached to the chunk via its TerraContainer and is released once the FEATURES stage has
+ * finished with it. If the chunk is saved & reloaded mid-generation the container (and session) is lost and
+ * a new session is created on demand. The reader is tracked against the chunk so that the ReaderTracker
+ * never closes it while the chunk is loaded, and closes it once an abandoned chunk has been collected.
+ */
+public class ChunkSession {
+
+    private final IChunk chunk;
+    private final ChunkReader reader;
+    private final TerraContainer container;
+    private final TerraContext context;
+
+    private IChunk fastChunk;
+    private ChunkSnapshot snapshot;
+    private boolean released = false;
+
+    private ChunkSession(IChunk chunk, ChunkReader reader, TerraContainer container, TerraContext context) {
+        this.chunk = chunk;
+        this.reader = reader;
+        this.container = container;
+        this.context = context;
+    }
+
+    public ChunkReader getReader() {
+        return reader;
+    }
+
+    public TerraContainer getContainer() {
+        return container;
+    }
+
+    /**
+     * The chunk's cell fields in array form, read from the reader on first use & shared by the later stages
+     */
+    public ChunkSnapshot getSnapshot() {
+        if (snapshot == null) {
+            snapshot = new ChunkSnapshot().fill(reader, context.levels, context.terrain);
+        }
+        return snapshot;
+    }
+
+    public IChunk getFastChunk() {
+        if (fastChunk == null) {
+            fastChunk = FastChunk.wrap(chunk);
+        }
+        return fastChunk;
+    }
+
+    /**
+     * Closes the session's reader & marks its chunk disposed. Must be called once the last stage that reads the
+     * heightmap for the chunk has completed; subsequent calls have no effect.
+     */
+    public void release() {
+        synchronized (chunk) {
+            if (released) {
+                return;
+            }
+            released = true;
+            container.setSession(null);
+        }
+        reader.close();
+        reader.dispose();
+    }
+
+    public static ChunkSession getOrCreate(IChunk chunk, TerraChunkGenerator generator) {
+        synchronized (chunk) {
+            BiomeContainer biomes = chunk.getBiomes();
+            if (biomes instanceof TerraContainer) {
+                ChunkSession session = ((TerraContainer) biomes).getSession();
+                if (session != null) {
+                    return session;
+                }
+            }
+
+            ChunkReader reader = generator.getSessionReader(chunk);
+
+            TerraContainer container;
+            if (biomes instanceof TerraContainer) {
+                container = (TerraContainer) biomes;
+            } else {
+                container = TerraContainer.create(reader, generator.getBiomeProvider());
+                ((ChunkPrimer) chunk).func_225548_a_(container);
+            }
+
+            ChunkSession session = new ChunkSession(chunk, reader, container, generator.getContext());
+            container.setSession(session);
+            return session;
+        }
+    }
+}
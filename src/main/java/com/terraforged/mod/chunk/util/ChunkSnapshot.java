@@ -0,0 +1,66 @@
+package com.terraforged.mod.chunk.util;
+
+import com.terraforged.core.cell.Cell;
+import com.terraforged.core.tile.chunk.ChunkReader;
+import com.terraforged.world.heightmap.Levels;
+import com.terraforged.world.terrain.Terrains;
+
+/**
+ * A structure-of-arrays copy of the cell fields read by the chunk's column stages, indexed by dx + (dz << 4).
+ * Filled once per chunk from its reader so that stages can loop over plain arrays instead of pulling fields
+ * from each Cell through a per-column callback. No Cell references are kept.
+ */
+public class ChunkSnapshot {
+
+    public static final int SIZE = 256;
+
+    public static final byte RIVER = 1;
+    public static final byte WETLAND = 1 << 1;
+    public static final byte VOLCANO = 1 << 2;
+    public static final byte VOLCANO_PIPE = 1 << 3;
+
+    public final float[] value = new float[SIZE];
+    public final float[] gradient = new float[SIZE];
+    public final float[] sediment = new float[SIZE];
+    public final float[] riverMask = new float[SIZE];
+    public final int[] height = new int[SIZE];
+    public final byte[] flags = new byte[SIZE];
+
+    public ChunkSnapshot fill(ChunkReader reader, Levels levels, Terrains terrains) {
+        for (int index = 0; index < SIZE; index++) {
+            Cell cell = reader.getCell(index & 15, index >> 4);
+            value[index] = cell.value;
+            gradient[index] = cell.gradient;
+            sediment[index] = cell.sediment;
+            riverMask[index] = cell.riverMask;
+            height[index] = levels.scale(cell.value);
+            flags[index] = getFlags(cell, terrains);
+        }
+        return this;
+    }
+
+    public boolean is(int index, byte flag) {
+        return (flags[index] & flag) != 0;
+    }
+
+    public static int index(int dx, int dz) {
+        return (dx & 15) + ((dz & 15) << 4);
+    }
+
+    public static byte getFlags(Cell cell, Terrains terrains) {
+        byte flags = 0;
+        if (cell.terrain.isRiver()) {
+            flags |= RIVER;
+        }
+        if (cell.terrain.isWetland()) {
+            flags |= WETLAND;
+        }
+        if (cell.terrain == terrains.volcano) {
+            flags |= VOLCANO;
+        }
+        if (cell.terrain == terrains.volcanoPipe) {
+            flags |= VOLCANO_PIPE;
+        }
+        return flags;
+    }
+}
@@ -0,0 +1,79 @@
+package com.terraforged.mod.chunk.util;
+
+import net.minecraft.block.BlockState;
+
+import java.util.Arrays;
+
+/**
+ * Collects vertical runs of a single block state per chunk column so that they can be written to the chunk's
+ * sections in bulk by FastChunk#write, instead of one setBlockState per block.
+ */
+public class ColumnBuffer {
+
+    private static final int MAX_RUNS = 4;
+
+    private final int[] counts = new int[256];
+    private final int[] bottoms = new int[256 * MAX_RUNS];
+    private final int[] tops = new int[256 * MAX_RUNS];
+    private final BlockState[] states = new BlockState[256 * MAX_RUNS];
+
+    private int maxY = -1;
+
+    /**
+     * Adds a run covering the blocks from (inclusive) down to (exclusive), matching ColumnDecorator#fillDown
+     */
+    public void fillDown(int dx, int dz, int from, int to, BlockState state) {
+        add(dx & 15, dz & 15, to + 1, from, state);
+    }
+
+    /**
+     * Adds a run covering the blocks between bottom & top (both inclusive) of the column
+     */
+    public void add(int dx, int dz, int bottom, int top, BlockState state) {
+        bottom = Math.max(0, bottom);
+        top = Math.min(255, top);
+        if (bottom > top) {
+            return;
+        }
+
+        int column = index(dx, dz);
+        int count = counts[column];
+        if (count == MAX_RUNS) {
+            throw new IllegalStateException("Too many runs in column " + dx + "," + dz);
+        }
+
+        int run = column * MAX_RUNS + count;
+        bottoms[run] = bottom;
+        tops[run] = top;
+        states[run] = state;
+        counts[column] = count + 1;
+        maxY = Math.max(maxY, top);
+    }
+
+    /**
+     * The highest y level covered by any run, or -1 if empty
+     */
+    public int getMaxY() {
+        return maxY;
+    }
+
+    public int getRunCount(int column) {
+        return counts[column];
+    }
+
+    public int getBottom(int column, int run) {
+        return bottoms[column * MAX_RUNS + run];
+    }
+
+    public int getTop(int column, int run) {
+        return tops[column * MAX_RUNS + run];
+    }
+
+    public BlockState getState(int column, int run) {
+        return states[column * MAX_RUNS + run];
+    }
+
+    public static int index(int dx, int dz) {
+        return (dz << 4) + dx;
+    }
+}
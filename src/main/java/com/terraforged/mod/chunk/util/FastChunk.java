@@ -1,17 +1,24 @@
 package com.terraforged.mod.chunk.util;
 
 import com.terraforged.api.chunk.ChunkDelegate;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
+import net.minecraft.fluid.IFluidState;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.palette.PalettedContainer;
 import net.minecraft.world.biome.BiomeContainer;
+import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.ChunkPrimer;
 import net.minecraft.world.chunk.ChunkSection;
 import net.minecraft.world.chunk.IChunk;
 import net.minecraft.world.gen.Heightmap;
 import org.apache.commons.lang3.Validate;
 
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
 /**
  * A ChunkPrimer wrapper that handles setting BlockStates within the chunk & updating heightmaps accordingly
  */
@@ -21,19 +28,50 @@ public class FastChunk implements ChunkDelegate {
     private static final int bitsPerEntry = 9;
     private static final long maxEntryValue = (1L << bitsPerEntry) - 1L;
 
+    // the heightmaps derived from the column tracker, in the order of the tracker's bitsets
+    private static final Heightmap.Type[] TRACKED = {
+            Heightmap.Type.WORLD_SURFACE_WG,
+            Heightmap.Type.OCEAN_FLOOR_WG,
+            Heightmap.Type.MOTION_BLOCKING,
+            Heightmap.Type.MOTION_BLOCKING_NO_LEAVES,
+    };
+    private static final int WORDS_PER_COLUMN = 256 / 64;
+    private static final int ALL_TRACKED = (1 << TRACKED.length) - 1;
+
     private final int blockX;
     private final int blockZ;
     private final ChunkPrimer primer;
-    private final Heightmap worldSurface;
-    private final Heightmap oceanSurface;
     private final BlockPos.Mutable mutable = new BlockPos.Mutable();
 
+    // per heightmap type, one bit per block of each column that satisfies the heightmap's predicate. The top
+    // of each column is read from the highest set bit so no rescans are needed when blocks are removed
+    private final long[][] columns = new long[TRACKED.length][256 * WORDS_PER_COLUMN];
+    // columns seeded from the chunk's heightmaps, which only know the top of each column. They are scanned
+    // in full the first time a block in them is cleared, as the next top down is not known until then
+    private final boolean[] partial = new boolean[256];
+
+    private BlockState lastState = null;
+    private int lastMask = 0;
+
+    // sections held by the current write session, see beginWrite()
+    private int writeDepth = 0;
+    private int lockedSections = 0;
+
+    // the states held by each section's palette, for sections created after the chunk was wrapped. Sections
+    // that already existed have unknown palettes & are never pre-sized
+    @SuppressWarnings("unchecked")
+    private final ReferenceOpenHashSet<BlockState>[] palettes = new ReferenceOpenHashSet[16];
+    private int unknownPalettes = 0;
+
+    // section writes held back by a buffered write session, see beginBufferedWrite()
+    private final SectionBuffer[] buffers = new SectionBuffer[16];
+    private boolean buffered = false;
+
     private FastChunk(ChunkPrimer primer) {
         this.primer = primer;
         this.blockX = primer.getPos().getXStart();
         this.blockZ = primer.getPos().getZStart();
-        this.worldSurface = primer.getHeightmap(Heightmap.Type.WORLD_SURFACE_WG);
-        this.oceanSurface = primer.getHeightmap(Heightmap.Type.OCEAN_FLOOR_WG);
+        init();
     }
 
     @Override
@@ -44,39 +82,167 @@ public class FastChunk implements ChunkDelegate {
     @Override
     public BlockState setBlockState(BlockPos pos, BlockState state, boolean falling) {
         if (pos.getY() >= 0 && pos.getY() < 256) {
-            ChunkSection section = primer.getSection(pos.getY() >> 4);
-            section.lock();
+            int sectionIndex = pos.getY() >> 4;
             int dx = pos.getX() & 15;
             int dy = pos.getY() & 15;
             int dz = pos.getZ() & 15;
-            BlockState replaced = section.setBlockState(dx, dy, dz, state, false);
+            BlockState replaced;
+            if (buffered) {
+                replaced = getBuffer(sectionIndex).set(dx, dy, dz, state);
+                if (replaced == null) {
+                    replaced = primer.getBlockState(pos);
+                }
+            } else {
+                ChunkSection section = acquire(sectionIndex);
+                replaced = section.setBlockState(dx, dy, dz, state, false);
+                record(sectionIndex, state);
+                release(section);
+            }
             if (state.getBlock() != Blocks.AIR) {
                 mutable.setPos(blockX + dx, pos.getY(), blockZ + dz);
-                if (state.getLightValue(primer, mutable) != 0) {
+                if (LightTable.emitsLight(state, primer, mutable)) {
                     primer.addLightPosition(mutable);
                 }
-                worldSurface.update(dx, pos.getY(), dz, state);
-                oceanSurface.update(dx, pos.getY(), dz, state);
             }
-            section.unlock();
+            track(dx, pos.getY(), dz, state);
             return replaced;
         }
         return Blocks.VOID_AIR.getDefaultState();
     }
 
+    @Override
+    public BlockState getBlockState(BlockPos pos) {
+        if (buffered && pos.getY() >= 0 && pos.getY() < 256) {
+            SectionBuffer buffer = buffers[pos.getY() >> 4];
+            if (buffer != null) {
+                BlockState state = buffer.get(pos.getX() & 15, pos.getY() & 15, pos.getZ() & 15);
+                if (state != null) {
+                    return state;
+                }
+            }
+        }
+        return primer.getBlockState(pos);
+    }
+
+    @Override
+    public IFluidState getFluidState(BlockPos pos) {
+        return getBlockState(pos).getFluidState();
+    }
+
+    /**
+     * Opens a write session during which each section is locked on first write & held until the session is
+     * closed, so the lock is paid once per section rather than once per block. The section locks are
+     * re-entrant so the owning thread may still write to the chunk directly. They do not make other threads
+     * wait: a PalettedContainer locked by another thread throws the "Accessing PalettedContainer from multiple
+     * threads" crash, so the chunk must only be written by the session's thread until it is closed, and the
+     * session should not be held across calls that may wait on other chunks.
+     */
+    public WriteSession beginWrite() {
+        writeDepth++;
+        return new WriteSession(this);
+    }
+
+    /**
+     * Opens a write session that also holds back block writes until the session closes, for stages that
+     * paint many different states into each section (eg strata). The held writes are then applied a section
+     * at a time, growing the section's palette to fit them in a single resize where its contents are known.
+     * Reads through the chunk see the held writes.
+     */
+    public WriteSession beginBufferedWrite() {
+        buffered = true;
+        return beginWrite();
+    }
+
+    @Override
+    public int getTopBlockY(Heightmap.Type type, int x, int z) {
+        for (int i = 0; i < TRACKED.length; i++) {
+            if (TRACKED[i] == type) {
+                return getTop(i, index(x & 15, z & 15));
+            }
+        }
+        return primer.getTopBlockY(type, x, z);
+    }
+
+    /**
+     * Writes the tracked column tops to the chunk's WG & MOTION_BLOCKING heightmaps, replacing the
+     * full-column rescan of updateWGHeightmaps
+     */
+    public void publishHeightmaps() {
+        for (int i = 0; i < TRACKED.length; i++) {
+            long[] data = primer.getHeightmap(TRACKED[i]).getDataArray();
+            for (int column = 0; column < 256; column++) {
+                setAt(data, column, getTop(i, column) + 1);
+            }
+        }
+    }
+
+    /**
+     * Writes the buffer's runs section by section, taking each section's lock once, then updates the
+     * column tracker & light positions once per run rather than once per block
+     */
+    public void write(ColumnBuffer buffer) {
+        flush();
+        int maxY = buffer.getMaxY();
+        for (int sectionIndex = 0; sectionIndex <= maxY >> 4; sectionIndex++) {
+            int sectionMinY = sectionIndex << 4;
+            int sectionMaxY = sectionMinY + 15;
+            ChunkSection section = acquire(sectionIndex);
+            for (int column = 0; column < 256; column++) {
+                int dx = column & 15;
+                int dz = column >> 4;
+                for (int run = 0; run < buffer.getRunCount(column); run++) {
+                    int bottom = Math.max(sectionMinY, buffer.getBottom(column, run));
+                    int top = Math.min(sectionMaxY, buffer.getTop(column, run));
+                    BlockState state = buffer.getState(column, run);
+                    for (int y = bottom; y <= top; y++) {
+                        section.setBlockState(dx, y & 15, dz, state, false);
+                    }
+                    if (bottom <= top) {
+                        record(sectionIndex, state);
+                    }
+                }
+            }
+            release(section);
+        }
+
+        for (int column = 0; column < 256; column++) {
+            int dx = column & 15;
+            int dz = column >> 4;
+            for (int run = 0; run < buffer.getRunCount(column); run++) {
+                BlockState state = buffer.getState(column, run);
+                if (state.getBlock() == Blocks.AIR) {
+                    continue;
+                }
+
+                int bottom = buffer.getBottom(column, run);
+                int top = buffer.getTop(column, run);
+                if (LightTable.mayEmitLight(state)) {
+                    for (int y = bottom; y <= top; y++) {
+                        mutable.setPos(blockX + dx, y, blockZ + dz);
+                        if (LightTable.emitsLight(state, primer, mutable)) {
+                            primer.addLightPosition(mutable);
+                        }
+                    }
+                }
+
+                track(column, bottom, top, state);
+            }
+        }
+    }
+
     public void fill(BlockState state) {
+        flush();
         int surfaceMinY = 255;
         for (int dz = 0; dz < 16; dz++) {
             for (int dx = 0; dx < 16; dx++) {
-                int y = primer.getTopBlockY(Heightmap.Type.OCEAN_FLOOR_WG, dx, dz);
+                int y = getTopBlockY(Heightmap.Type.OCEAN_FLOOR_WG, dx, dz);
                 surfaceMinY = Math.min(surfaceMinY, y);
             }
         }
 
         int topSection = (surfaceMinY >> 4);
         for (int sectionIndex = 0; sectionIndex < topSection; sectionIndex++) {
-            ChunkSection section = primer.getSection(sectionIndex);
-            section.lock();
+            ChunkSection section = acquire(sectionIndex);
             PalettedContainer<BlockState> container = section.getData();
             for (int dy = 0; dy < 16; dy++) {
                 for (int dz = 0; dz < 16; dz++) {
@@ -85,14 +251,268 @@ public class FastChunk implements ChunkDelegate {
                     }
                 }
             }
+            record(sectionIndex, state);
+            release(section);
+        }
+
+        if (topSection > 0) {
+            for (int column = 0; column < 256; column++) {
+                track(column, 0, (topSection << 4) - 1, state);
+            }
+        }
+    }
+
+    private ChunkSection acquire(int sectionIndex) {
+        ChunkSection section = primer.getSection(sectionIndex);
+        if (writeDepth == 0) {
+            section.lock();
+        } else if ((lockedSections & (1 << sectionIndex)) == 0) {
+            section.lock();
+            lockedSections |= 1 << sectionIndex;
+        }
+        return section;
+    }
+
+    private void release(ChunkSection section) {
+        if (writeDepth == 0) {
             section.unlock();
         }
     }
 
+    private SectionBuffer getBuffer(int sectionIndex) {
+        SectionBuffer buffer = buffers[sectionIndex];
+        if (buffer == null) {
+            buffer = new SectionBuffer();
+            buffers[sectionIndex] = buffer;
+        }
+        return buffer;
+    }
+
+    // applies the writes held by a buffered session to their sections
+    private void flush() {
+        for (int sectionIndex = 0; sectionIndex < buffers.length; sectionIndex++) {
+            SectionBuffer buffer = buffers[sectionIndex];
+            if (buffer == null) {
+                continue;
+            }
+            buffers[sectionIndex] = null;
+            ChunkSection section = acquire(sectionIndex);
+            buffer.apply(section, getPalette(sectionIndex));
+            release(section);
+        }
+    }
+
+    // records a state written to the section for pre-sizing its palette
+    private void record(int sectionIndex, BlockState state) {
+        ReferenceOpenHashSet<BlockState> palette = getPalette(sectionIndex);
+        if (palette != null) {
+            palette.add(state);
+        }
+    }
+
+    private ReferenceOpenHashSet<BlockState> getPalette(int sectionIndex) {
+        if ((unknownPalettes & (1 << sectionIndex)) != 0) {
+            return null;
+        }
+        ReferenceOpenHashSet<BlockState> palette = palettes[sectionIndex];
+        if (palette == null) {
+            // new sections' palettes start out holding air
+            palette = new ReferenceOpenHashSet<>();
+            palette.add(Blocks.AIR.getDefaultState());
+            palettes[sectionIndex] = palette;
+        }
+        return palette;
+    }
+
+    private void endWrite() {
+        if (--writeDepth > 0) {
+            return;
+        }
+        flush();
+        buffered = false;
+        for (int sectionIndex = 0; lockedSections != 0; sectionIndex++) {
+            int bit = 1 << sectionIndex;
+            if ((lockedSections & bit) != 0) {
+                lockedSections &= ~bit;
+                primer.getSection(sectionIndex).unlock();
+            }
+        }
+    }
+
+    // seeds the tracker from blocks that were placed before the chunk was wrapped, eg if the chunk was
+    // saved & reloaded part way through generation. The chunk's own heightmaps are used where it has them
+    // & the sections are only scanned as a fallback
+    private void init() {
+        ChunkSection[] sections = primer.getSections();
+        boolean empty = true;
+        for (int sectionIndex = 0; sectionIndex < sections.length; sectionIndex++) {
+            if (sections[sectionIndex] != Chunk.EMPTY_SECTION) {
+                unknownPalettes |= 1 << sectionIndex;
+            }
+            if (!ChunkSection.isEmpty(sections[sectionIndex])) {
+                empty = false;
+            }
+        }
+        if (empty || seedFromHeightmaps()) {
+            return;
+        }
+
+        for (int sectionIndex = 0; sectionIndex < sections.length; sectionIndex++) {
+            ChunkSection section = sections[sectionIndex];
+            if (ChunkSection.isEmpty(section)) {
+                continue;
+            }
+            for (int dy = 0; dy < 16; dy++) {
+                for (int dz = 0; dz < 16; dz++) {
+                    for (int dx = 0; dx < 16; dx++) {
+                        track(dx, (sectionIndex << 4) + dy, dz, section.getBlockState(dx, dy, dz));
+                    }
+                }
+            }
+        }
+    }
+
+    // returns false if the chunk is missing any of the tracked heightmaps, or has one that was never
+    // computed (all zero despite the chunk containing blocks)
+    private boolean seedFromHeightmaps() {
+        Map<Heightmap.Type, Heightmap> heightmaps = new EnumMap<>(Heightmap.Type.class);
+        for (Map.Entry<Heightmap.Type, Heightmap> entry : primer.func_217311_f()) {
+            heightmaps.put(entry.getKey(), entry.getValue());
+        }
+
+        int[][] tops = new int[TRACKED.length][256];
+        for (int i = 0; i < TRACKED.length; i++) {
+            Heightmap heightmap = heightmaps.get(TRACKED[i]);
+            if (heightmap == null) {
+                return false;
+            }
+            boolean computed = false;
+            for (int column = 0; column < 256; column++) {
+                int height = heightmap.getHeight(column & 15, column >> 4);
+                tops[i][column] = height - 1;
+                computed |= height > 0;
+            }
+            if (!computed) {
+                return false;
+            }
+        }
+
+        for (int i = 0; i < TRACKED.length; i++) {
+            long[] bits = columns[i];
+            for (int column = 0; column < 256; column++) {
+                int y = tops[i][column];
+                if (y >= 0) {
+                    bits[column * WORDS_PER_COLUMN + (y >> 6)] |= 1L << (y & 63);
+                }
+            }
+        }
+        Arrays.fill(partial, true);
+        return true;
+    }
+
+    // replaces a partial column's seeded tops with the full contents of the column
+    private void scan(int column) {
+        partial[column] = false;
+        for (long[] bits : columns) {
+            Arrays.fill(bits, column * WORDS_PER_COLUMN, (column + 1) * WORDS_PER_COLUMN, 0L);
+        }
+
+        int dx = column & 15;
+        int dz = column >> 4;
+        ChunkSection[] sections = primer.getSections();
+        for (int sectionIndex = 0; sectionIndex < sections.length; sectionIndex++) {
+            ChunkSection section = sections[sectionIndex];
+            SectionBuffer buffer = buffers[sectionIndex];
+            if (ChunkSection.isEmpty(section) && buffer == null) {
+                continue;
+            }
+            for (int dy = 0; dy < 16; dy++) {
+                BlockState state = buffer == null ? null : buffer.get(dx, dy, dz);
+                if (state == null) {
+                    state = ChunkSection.isEmpty(section) ? Blocks.AIR.getDefaultState() : section.getBlockState(dx, dy, dz);
+                }
+                track(column, (sectionIndex << 4) + dy, (sectionIndex << 4) + dy, state);
+            }
+        }
+    }
+
+    private void track(int dx, int y, int dz, BlockState state) {
+        track(index(dx, dz), y, y, state);
+    }
+
+    // sets or clears the bits of blocks bottom-top (inclusive) of the column for each tracked heightmap
+    private void track(int column, int bottom, int top, BlockState state) {
+        int mask = getMask(state);
+        if (mask != ALL_TRACKED && partial[column]) {
+            // the blocks have already been written so the scan includes them
+            scan(column);
+        }
+        for (int i = 0; i < TRACKED.length; i++) {
+            long[] bits = columns[i];
+            boolean set = (mask & (1 << i)) != 0;
+            for (int y = bottom; y <= top; y++) {
+                int word = column * WORDS_PER_COLUMN + (y >> 6);
+                if (set) {
+                    bits[word] |= 1L << (y & 63);
+                } else {
+                    bits[word] &= ~(1L << (y & 63));
+                }
+            }
+        }
+    }
+
+    // the highest y value in the column satisfying the heightmap's predicate, or -1 if none
+    private int getTop(int type, int column) {
+        long[] bits = columns[type];
+        for (int word = WORDS_PER_COLUMN - 1; word >= 0; word--) {
+            long value = bits[column * WORDS_PER_COLUMN + word];
+            if (value != 0L) {
+                return (word << 6) + 63 - Long.numberOfLeadingZeros(value);
+            }
+        }
+        return -1;
+    }
+
+    // writes tend to repeat the same state so the last state's predicate results are remembered
+    private int getMask(BlockState state) {
+        if (state == lastState) {
+            return lastMask;
+        }
+        int mask = 0;
+        for (int i = 0; i < TRACKED.length; i++) {
+            if (TRACKED[i].getHeightLimitPredicate().test(state)) {
+                mask |= 1 << i;
+            }
+        }
+        lastState = state;
+        lastMask = mask;
+        return mask;
+    }
+
     public void setBiomes(BiomeContainer biomes) {
         primer.func_225548_a_(biomes);
     }
 
+    /**
+     * Opens a write session on the chunk if it is a FastChunk, otherwise returns a no-op session
+     */
+    public static WriteSession beginWrite(IChunk chunk) {
+        if (chunk instanceof FastChunk) {
+            return ((FastChunk) chunk).beginWrite();
+        }
+        return new WriteSession(null);
+    }
+
+    /**
+     * Opens a buffered write session on the chunk if it is a FastChunk, otherwise returns a no-op session
+     */
+    public static WriteSession beginBufferedWrite(IChunk chunk) {
+        if (chunk instanceof FastChunk) {
+            return ((FastChunk) chunk).beginBufferedWrite();
+        }
+        return new WriteSession(null);
+    }
+
     public static IChunk wrap(IChunk chunk) {
         if (chunk instanceof FastChunk) {
             return chunk;
@@ -149,4 +569,24 @@ public class FastChunk implements ChunkDelegate {
     private static int index(int x, int z) {
         return x + (z << 4);
     }
+
+    public static class WriteSession implements AutoCloseable {
+
+        private final FastChunk chunk;
+        private boolean closed = false;
+
+        private WriteSession(FastChunk chunk) {
+            this.chunk = chunk;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                if (chunk != null) {
+                    chunk.endWrite();
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,103 @@
+package com.terraforged.mod.chunk.util;
+
+import com.terraforged.mod.Log;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.EmptyBlockReader;
+import net.minecraft.world.IBlockReader;
+import net.minecraftforge.common.extensions.IForgeBlock;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.registries.IdMappingEvent;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A table of which BlockStates emit light, indexed by state id, so that chunk writes during generation can
+ * skip the (Forge-hooked) light value look-up for the vast majority of blocks that emit none.
+ *
+ * Built once the registries are frozen & rebuilt whenever the state ids are remapped or data is reloaded.
+ * States are sampled through Forge's positional light value in an empty world at the origin. Blocks that
+ * override the positional light value may depend on their surroundings so their states, like states that
+ * are not in the table, fall back to the light value look-up at the written position.
+ */
+@Mod.EventBusSubscriber(bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class LightTable {
+
+    private static final byte NONE = 0;
+    private static final byte EMITS = 1;
+    private static final byte DYNAMIC = 2;
+
+    private static volatile byte[] emitters = null;
+
+    /**
+     * Returns false if the state never emits light, regardless of its position
+     */
+    public static boolean mayEmitLight(BlockState state) {
+        return lookup(state) != NONE;
+    }
+
+    public static boolean emitsLight(BlockState state, IBlockReader world, BlockPos pos) {
+        byte value = lookup(state);
+        if (value == DYNAMIC) {
+            return state.getLightValue(world, pos) != 0;
+        }
+        return value == EMITS;
+    }
+
+    private static byte lookup(BlockState state) {
+        byte[] table = emitters;
+        if (table != null) {
+            int id = Block.getStateId(state);
+            if (id >= 0 && id < table.length) {
+                return table[id];
+            }
+        }
+        return DYNAMIC;
+    }
+
+    public static void rebuild() {
+        int size = 0;
+        for (BlockState state : Block.BLOCK_STATE_IDS) {
+            size = Math.max(size, Block.getStateId(state) + 1);
+        }
+
+        int count = 0;
+        int dynamic = 0;
+        byte[] table = new byte[size];
+        Map<Class<?>, Boolean> overrides = new IdentityHashMap<>();
+        for (BlockState state : Block.BLOCK_STATE_IDS) {
+            byte value;
+            if (overrides.computeIfAbsent(state.getBlock().getClass(), LightTable::overridesLightValue)) {
+                value = DYNAMIC;
+                dynamic++;
+            } else if (state.getLightValue(EmptyBlockReader.INSTANCE, BlockPos.ZERO) != 0) {
+                value = EMITS;
+                count++;
+            } else {
+                value = NONE;
+            }
+            table[Block.getStateId(state)] = value;
+        }
+
+        emitters = table;
+        Log.debug("Built light table: {} states, {} emitters, {} positional", size, count, dynamic);
+    }
+
+    // blocks that don't override Forge's positional light value return the state's own light value
+    private static boolean overridesLightValue(Class<?> type) {
+        try {
+            Class<?> owner = type.getMethod("getLightValue", BlockState.class, IBlockReader.class, BlockPos.class).getDeclaringClass();
+            return owner != IForgeBlock.class && owner != Block.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    @SubscribeEvent
+    public static void remap(IdMappingEvent event) {
+        rebuild();
+    }
+}
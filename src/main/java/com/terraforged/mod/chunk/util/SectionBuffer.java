@@ -0,0 +1,74 @@
+package com.terraforged.mod.chunk.util;
+
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.palette.PalettedContainer;
+import net.minecraft.world.chunk.ChunkSection;
+
+/**
+ * Holds the states written to a section during a buffered write session (see FastChunk#beginBufferedWrite)
+ * so that the section's palette can be grown to fit all of them in a single resize before they are applied,
+ * rather than resizing (& re-encoding the section) each time the palette fills up. Only written positions
+ * are held, all others read through to the section.
+ */
+public class SectionBuffer {
+
+    private static final int SIZE = 4096;
+
+    private final BlockState[] states = new BlockState[SIZE];
+    private final ReferenceOpenHashSet<BlockState> written = new ReferenceOpenHashSet<>();
+
+    /**
+     * Returns the state written at the position, or null if it has not been written
+     */
+    public BlockState get(int dx, int dy, int dz) {
+        return states[index(dx, dy, dz)];
+    }
+
+    /**
+     * Returns the state previously written at the position, or null if it had not been written
+     */
+    public BlockState set(int dx, int dy, int dz, BlockState state) {
+        int index = index(dx, dy, dz);
+        BlockState replaced = states[index];
+        states[index] = state;
+        written.add(state);
+        return replaced;
+    }
+
+    /**
+     * Writes the buffered states to the section, which must be locked by the caller. If the states the
+     * section's palette holds are known they are used to size the palette once up front & are updated with
+     * the written states.
+     *
+     * @param palette the states held by the section's palette, or null if not known
+     */
+    public void apply(ChunkSection section, ReferenceOpenHashSet<BlockState> palette) {
+        if (palette != null && !written.isEmpty()) {
+            int bits = getBits(palette.size());
+            palette.addAll(written);
+            int required = getBits(palette.size());
+            if (required > bits) {
+                PalettedContainer<BlockState> container = section.getData();
+                container.onResize(required, written.iterator().next());
+            }
+        }
+
+        for (int i = 0; i < SIZE; i++) {
+            BlockState state = states[i];
+            if (state != null) {
+                section.setBlockState(i & 15, i >> 8, (i >> 4) & 15, state, false);
+            }
+        }
+    }
+
+    // the bits per entry of a palette holding the given number of states, see PalettedContainer#setBits
+    private static int getBits(int size) {
+        return Math.max(4, MathHelper.log2DeBruijn(size));
+    }
+
+    private static int index(int dx, int dy, int dz) {
+        return (dy << 8) | (dz << 4) | dx;
+    }
+}
@@ -5,11 +5,10 @@ import com.terraforged.core.cell.Cell;
 import com.terraforged.core.tile.chunk.ChunkReader;
 import com.terraforged.core.util.PosIterator;
 import com.terraforged.mod.biome.provider.TerraBiomeProvider;
+import com.terraforged.mod.chunk.tile.ChunkSummary;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.biome.Biome;
 import net.minecraft.world.biome.BiomeContainer;
-import net.minecraft.world.chunk.ChunkPrimer;
-import net.minecraft.world.chunk.IChunk;
 
 public class TerraContainer extends BiomeContainer {
 
@@ -23,18 +22,38 @@ public class TerraContainer extends BiomeContainer {
     private final Biome[] biomes;
     private final Biome[] surface;
 
+    private ChunkSession session;
+
     public TerraContainer(Biome[] biomes, Biome[] surface) {
         super(biomes);
         this.biomes = biomes;
         this.surface = surface;
     }
 
+    ChunkSession getSession() {
+        return session;
+    }
+
+    void setSession(ChunkSession session) {
+        this.session = session;
+    }
+
     public Biome getBiome(int x, int z) {
         x &= 15;
         z &= 15;
         return surface[z * 16 + x];
     }
 
+    /**
+     * @param summary the chunk's summary, or null if unavailable, used to skip the scan for extreme biomes
+     */
+    public Biome getFeatureBiome(ChunkReader chunkReader, ChunkSummary summary) {
+        if (summary != null && !summary.hasExtremeBiome()) {
+            return getBiome(8, 8);
+        }
+        return getFeatureBiome(chunkReader);
+    }
+
     public Biome getFeatureBiome(ChunkReader chunkReader) {
         PosIterator iterator = PosIterator.area(0, 0, 16, 16);
         while (iterator.next()) {
@@ -61,20 +80,6 @@ public class TerraContainer extends BiomeContainer {
         return new BiomeContainer(biomes);
     }
 
-    public static TerraContainer getOrCreate(IChunk chunk, ChunkReader reader, TerraBiomeProvider biomeProvider) {
-        BiomeContainer biomes = chunk.getBiomes();
-        if (biomes instanceof TerraContainer) {
-            return (TerraContainer) biomes;
-        }
-
-        TerraContainer container = TerraContainer.create(reader, biomeProvider);
-
-        // replace/set the primer's biomes
-        ((ChunkPrimer) chunk).func_225548_a_(container);
-
-        return container;
-    }
-
     public static TerraContainer create(ChunkReader chunkReader, TerraBiomeProvider biomeProvider) {
         Biome[] biomes2D = new Biome[BIOMES_2D_SIZE];
         Biome[] biomes3D = new Biome[BIOMES_3D_SIZE];
@@ -59,6 +59,147 @@ public class ConfigManager {
                 "Controls the number of pieces a heightmap tile is divided up into.",
                 "Higher batch counts may be able to utilize more of the available threads, improving performance."
         );
+
+        set(
+                cfg,
+                "tile_store",
+                PerfDefaults.TILE_STORE,
+                "Stores generated heightmap tiles in the world save so they can be re-used after a restart.",
+                "Stored tiles are discarded automatically when the world's generator settings change."
+        );
+
+        set(
+                cfg,
+                "max_cache_mb",
+                PerfDefaults.CACHE_MB,
+                "Controls the maximum amount of memory (in megabytes) used to retain encoded copies of generated",
+                "heightmap tiles. This does not bound the heightmap generator's own tile cache, which holds the tiles",
+                "of chunks that are still generating on top of this limit.",
+                "Tiles that are requested frequently (such as those around spawn) are favoured when the limit is reached.",
+                "Set to 0 to disable the cache."
+        );
+
+        set(
+                cfg,
+                "packed_tiles",
+                PerfDefaults.PACKED_TILES,
+                "Stores cached heightmap tiles at reduced (8/16 bit) precision.",
+                "Packed tiles use roughly a third of the memory, allowing more tiles to fit within max_cache_mb."
+        );
+
+        set(
+                cfg,
+                "off_heap_tiles",
+                PerfDefaults.OFF_HEAP_TILES,
+                "Stores cached heightmap tiles outside of the java heap.",
+                "This can reduce garbage collection pauses on servers that explore large areas.",
+                "Off-heap tiles are retained within max_cache_mb the same as on-heap tiles. The heightmap generator's",
+                "own tiles are still built on the java heap while their chunks are generating."
+        );
+
+        set(
+                cfg,
+                "prefetch_distance",
+                PerfDefaults.PREFETCH_DISTANCE,
+                "Controls how far ahead (in blocks) of a moving player heightmap tiles are queued for generation.",
+                "Set to 0 to disable prefetching."
+        );
+
+        set(
+                cfg,
+                "prefetch_max_regions",
+                PerfDefaults.PREFETCH_MAX_REGIONS,
+                "Controls the maximum number of prefetched heightmap tiles that can be queued at any one time."
+        );
+
+        set(
+                cfg,
+                "queue_timeout",
+                PerfDefaults.QUEUE_TIMEOUT,
+                "The number of seconds a heightmap tile queued ahead of a moving player may wait to be generated",
+                "before it is cancelled, if the player is no longer heading towards it. Tiles queued for chunks that",
+                "are generating, around spawn, or by pre-generation are never cancelled."
+        );
+
+        set(
+                cfg,
+                "reader_ttl",
+                PerfDefaults.READER_TTL,
+                "The number of seconds a heightmap tile may sit idle with chunks that were never completed (or",
+                "readers that were never closed) before it is reclaimed. Set to 0 to disable reclaiming, readers held",
+                "by chunks that were unloaded part way through generation are still closed."
+        );
+
+        set(
+                cfg,
+                "reader_leak_detection",
+                PerfDefaults.READER_LEAK_DETECTION,
+                "Records where each heightmap chunk reader was acquired so that leaked readers can be traced.",
+                "This has a noticeable cost and is intended for debugging only."
+        );
+
+        set(
+                cfg,
+                "tile_workers",
+                PerfDefaults.TILE_WORKERS,
+                "The number of separate worker processes used to pre-generate heightmap tiles (0 to disable).",
+                "Workers keep the memory & garbage collection cost of bulk generation out of the game's process.",
+                "Requires tile_store to be enabled. Terrain added by other mods is not supported by workers."
+        );
+
+        set(
+                cfg,
+                "tile_worker_memory",
+                PerfDefaults.TILE_WORKER_MEMORY,
+                "The maximum heap size (in MB) of each tile worker process."
+        );
+
+        set(
+                cfg,
+                "autotune",
+                PerfDefaults.AUTOTUNE,
+                "Automatically adjusts how many heightmap tiles are generated at once, and the batch count of tiles",
+                "queued ahead of players, based on how long chunk generation waits for heightmap tiles and how long",
+                "the server takes to tick. The size of the generator's thread pool is not changed."
+        );
+
+        set(
+                cfg,
+                "autotune_min_threads",
+                PerfDefaults.AUTOTUNE_MIN_THREADS,
+                "The minimum number of threads the auto-tuner may reduce the heightmap generator to."
+        );
+
+        set(
+                cfg,
+                "autotune_max_threads",
+                PerfDefaults.AUTOTUNE_MAX_THREADS,
+                "The maximum number of threads the auto-tuner may increase the heightmap generator to."
+        );
+
+        set(
+                cfg,
+                "autotune_tick_budget",
+                PerfDefaults.AUTOTUNE_TICK_BUDGET,
+                "The average server tick duration (in milliseconds) above which the auto-tuner will reduce the",
+                "number of heightmap generator threads to free up CPU time for the server thread."
+        );
+
+        set(
+                cfg,
+                "autotune_max_batch_count",
+                PerfDefaults.AUTOTUNE_MAX_BATCH_COUNT,
+                "The maximum batch count the auto-tuner may raise queued heightmap tiles to once it has reached",
+                "autotune_max_threads."
+        );
+
+        set(
+                cfg,
+                "spawn_prewarm_radius",
+                PerfDefaults.SPAWN_PREWARM_RADIUS,
+                "The radius (in chunks) around the world spawn whose heightmap tiles are generated in the",
+                "background while the server is starting. Set to 0 to disable."
+        );
     }));
 
     public static final ConfigRef GENERAL = new ConfigRef(() -> create("general", cfg -> {
@@ -80,7 +221,7 @@ public class ConfigManager {
         Config.setInsertionOrderPreserved(true);
         BIOME_WEIGHTS.get();
         PERFORMANCE.get();
-        PerfDefaults.getAndPrintPerfSettings();
+        PerfTuner.configure(PerfDefaults.getAndPrintPerfSettings());
     }
 
     private static CommentedFileConfig create(String name, Consumer<CommentedFileConfig> defaulter) {
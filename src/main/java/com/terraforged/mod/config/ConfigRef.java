@@ -11,6 +11,7 @@ public class ConfigRef implements Supplier<CommentedFileConfig> {
     private final Supplier<CommentedFileConfig> factory;
 
     private CommentedFileConfig ref;
+    private long lastModified;
 
     public ConfigRef(Supplier<CommentedFileConfig> factory) {
         this.factory = factory;
@@ -22,9 +23,21 @@ public class ConfigRef implements Supplier<CommentedFileConfig> {
             if (ref != null) {
                 Log.info("Loading config: {}", ref.getFile().getName());
                 ref.load();
+                lastModified = ref.getFile().lastModified();
                 return ref;
             }
-            return ref = factory.get();
+            ref = factory.get();
+            lastModified = ref.getFile().lastModified();
+            return ref;
+        }
+    }
+
+    /**
+     * Returns true if the config file has been modified on disk since it was last loaded
+     */
+    public boolean isModified() {
+        synchronized (lock) {
+            return ref != null && ref.getFile().lastModified() != lastModified;
         }
     }
 }
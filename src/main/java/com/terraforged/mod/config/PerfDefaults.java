@@ -7,13 +7,36 @@ import com.terraforged.mod.Log;
 public class PerfDefaults {
 
     public static final boolean BATCHING = false;
+    public static final boolean TILE_STORE = false;
+    public static final boolean PACKED_TILES = false;
+    public static final boolean OFF_HEAP_TILES = false;
+    public static final boolean AUTOTUNE = false;
+    public static final boolean READER_LEAK_DETECTION = false;
     public static final int TILE_SIZE = 3;
     public static final int BATCH_COUNT = 6;
     public static final int THREAD_COUNT = ThreadPools.defaultPoolSize();
+    public static final int CACHE_MB = 128;
+    public static final int PREFETCH_DISTANCE = 512;
+    public static final int PREFETCH_MAX_REGIONS = 8;
+    public static final int QUEUE_TIMEOUT = 30;
+    public static final int READER_TTL = 300;
+    public static final int TILE_WORKERS = 0;
+    public static final int TILE_WORKER_MEMORY = 1024;
+    public static final int AUTOTUNE_MIN_THREADS = 1;
+    public static final int AUTOTUNE_TICK_BUDGET = 45;
+    public static final int AUTOTUNE_MAX_BATCH_COUNT = 12;
+    public static final int SPAWN_PREWARM_RADIUS = 12;
 
     public static final int MAX_TILE_SIZE = 8;
     public static final int MAX_BATCH_COUNT = 20;
     public static final int MAX_THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+    public static final int MAX_CACHE_MB = 8192;
+    public static final int MAX_POOLED_TILES = 8;
+    public static final int MAX_SPAWN_PREWARM_RADIUS = 64;
+    public static final int MAX_PREFETCH_DISTANCE = 2048;
+    public static final int MAX_PREFETCH_REGIONS = 64;
+    public static final int AUTOTUNE_MAX_THREADS = MAX_THREAD_COUNT;
+    public static final int MAX_TILE_WORKERS = 16;
 
     private static boolean isUsingDefaultPerfSettings(CommentedConfig config) {
         boolean yes = true;
@@ -21,6 +44,23 @@ public class PerfDefaults {
         yes &= config.getInt("thread_count") == THREAD_COUNT;
         yes &= config.getInt("batch_count") == BATCH_COUNT;
         yes &= config.getInt("tile_size") == TILE_SIZE;
+        yes &= config.getOrElse("tile_store", TILE_STORE) == TILE_STORE;
+        yes &= config.getIntOrElse("max_cache_mb", CACHE_MB) == CACHE_MB;
+        yes &= config.getOrElse("packed_tiles", PACKED_TILES) == PACKED_TILES;
+        yes &= config.getOrElse("off_heap_tiles", OFF_HEAP_TILES) == OFF_HEAP_TILES;
+        yes &= config.getIntOrElse("prefetch_distance", PREFETCH_DISTANCE) == PREFETCH_DISTANCE;
+        yes &= config.getIntOrElse("prefetch_max_regions", PREFETCH_MAX_REGIONS) == PREFETCH_MAX_REGIONS;
+        yes &= config.getIntOrElse("queue_timeout", QUEUE_TIMEOUT) == QUEUE_TIMEOUT;
+        yes &= config.getIntOrElse("reader_ttl", READER_TTL) == READER_TTL;
+        yes &= config.getOrElse("reader_leak_detection", READER_LEAK_DETECTION) == READER_LEAK_DETECTION;
+        yes &= config.getIntOrElse("tile_workers", TILE_WORKERS) == TILE_WORKERS;
+        yes &= config.getIntOrElse("tile_worker_memory", TILE_WORKER_MEMORY) == TILE_WORKER_MEMORY;
+        yes &= config.getOrElse("autotune", AUTOTUNE) == AUTOTUNE;
+        yes &= config.getIntOrElse("autotune_min_threads", AUTOTUNE_MIN_THREADS) == AUTOTUNE_MIN_THREADS;
+        yes &= config.getIntOrElse("autotune_max_threads", AUTOTUNE_MAX_THREADS) == AUTOTUNE_MAX_THREADS;
+        yes &= config.getIntOrElse("autotune_tick_budget", AUTOTUNE_TICK_BUDGET) == AUTOTUNE_TICK_BUDGET;
+        yes &= config.getIntOrElse("autotune_max_batch_count", AUTOTUNE_MAX_BATCH_COUNT) == AUTOTUNE_MAX_BATCH_COUNT;
+        yes &= config.getIntOrElse("spawn_prewarm_radius", SPAWN_PREWARM_RADIUS) == SPAWN_PREWARM_RADIUS;
         return yes;
     }
 
@@ -32,6 +72,23 @@ public class PerfDefaults {
         Log.info(" - Tile Size: {}", config.getInt("tile_size"));
         Log.info(" - Batching: {}", config.getOrElse("batching", BATCHING));
         Log.info(" - Batch Count: {}", config.getInt("batch_count"));
+        Log.info(" - Tile Store: {}", config.getOrElse("tile_store", TILE_STORE));
+        Log.info(" - Max Cache MB: {}", config.getIntOrElse("max_cache_mb", CACHE_MB));
+        Log.info(" - Packed Tiles: {}", config.getOrElse("packed_tiles", PACKED_TILES));
+        Log.info(" - Off-Heap Tiles: {}", config.getOrElse("off_heap_tiles", OFF_HEAP_TILES));
+        Log.info(" - Prefetch Distance: {}", config.getIntOrElse("prefetch_distance", PREFETCH_DISTANCE));
+        Log.info(" - Prefetch Max Regions: {}", config.getIntOrElse("prefetch_max_regions", PREFETCH_MAX_REGIONS));
+        Log.info(" - Queue Timeout: {}", config.getIntOrElse("queue_timeout", QUEUE_TIMEOUT));
+        Log.info(" - Reader TTL: {}", config.getIntOrElse("reader_ttl", READER_TTL));
+        Log.info(" - Reader Leak Detection: {}", config.getOrElse("reader_leak_detection", READER_LEAK_DETECTION));
+        Log.info(" - Tile Workers: {}", config.getIntOrElse("tile_workers", TILE_WORKERS));
+        Log.info(" - Tile Worker Memory: {}", config.getIntOrElse("tile_worker_memory", TILE_WORKER_MEMORY));
+        Log.info(" - Autotune: {}", config.getOrElse("autotune", AUTOTUNE));
+        Log.info(" - Autotune Min Threads: {}", config.getIntOrElse("autotune_min_threads", AUTOTUNE_MIN_THREADS));
+        Log.info(" - Autotune Max Threads: {}", config.getIntOrElse("autotune_max_threads", AUTOTUNE_MAX_THREADS));
+        Log.info(" - Autotune Tick Budget: {}", config.getIntOrElse("autotune_tick_budget", AUTOTUNE_TICK_BUDGET));
+        Log.info(" - Autotune Max Batch Count: {}", config.getIntOrElse("autotune_max_batch_count", AUTOTUNE_MAX_BATCH_COUNT));
+        Log.info(" - Spawn Prewarm Radius: {}", config.getIntOrElse("spawn_prewarm_radius", SPAWN_PREWARM_RADIUS));
         return config;
     }
 }
@@ -0,0 +1,62 @@
+package com.terraforged.mod.config;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.terraforged.mod.Log;
+import com.terraforged.mod.chunk.TerraChunkGenerator;
+import com.terraforged.mod.chunk.tile.TileCacheFactory;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.gen.ChunkGenerator;
+import net.minecraft.world.server.ServerWorld;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.server.ServerLifecycleHooks;
+
+/**
+ * Watches performance.conf for changes & re-applies the tile generator settings to every TerraForged world.
+ * Reloading resets any adjustments made by the {@link PerfTuner}.
+ */
+@Mod.EventBusSubscriber(bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class PerfReloader {
+
+    // ticks between checks of the config file's modified time
+    private static final int CHECK_INTERVAL = 100;
+
+    private static int ticks = 0;
+
+    @SubscribeEvent
+    public static void tick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || ++ticks < CHECK_INTERVAL) {
+            return;
+        }
+
+        ticks = 0;
+        if (ConfigManager.PERFORMANCE.isModified()) {
+            Log.info("Detected changes to performance settings");
+            MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+            if (server != null) {
+                reload(server);
+            }
+        }
+    }
+
+    /**
+     * Reloads performance.conf and applies it to the tile generators of all TerraForged worlds. Returns the
+     * TileCacheFactory of the last world reloaded (to report which settings are deferred until a restart),
+     * or null if no TerraForged worlds are loaded.
+     */
+    public static TileCacheFactory reload(MinecraftServer server) {
+        CommentedConfig config = PerfDefaults.getAndPrintPerfSettings();
+        PerfSettings settings = PerfSettings.load(config);
+        PerfTuner.configure(config);
+        TileCacheFactory factory = null;
+        for (ServerWorld world : server.getWorlds()) {
+            ChunkGenerator<?> generator = world.getChunkProvider().getChunkGenerator();
+            if (generator instanceof TerraChunkGenerator) {
+                factory = ((TerraChunkGenerator) generator).reload(settings);
+                Log.info("Reloaded tile generator for {}: {}", world.getDimension().getType(), settings);
+            }
+        }
+        return factory;
+    }
+}
@@ -0,0 +1,39 @@
+package com.terraforged.mod.config;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+
+/**
+ * The effective (clamped) tile generator settings read from performance.conf
+ */
+public class PerfSettings {
+
+    public final int threadCount;
+    public final int tileSize;
+    public final boolean batching;
+    public final int batchCount;
+
+    public PerfSettings(int threadCount, int tileSize, boolean batching, int batchCount) {
+        this.threadCount = threadCount;
+        this.tileSize = tileSize;
+        this.batching = batching;
+        this.batchCount = batchCount;
+    }
+
+    @Override
+    public String toString() {
+        return "PerfSettings{" +
+                "threadCount=" + threadCount +
+                ", tileSize=" + tileSize +
+                ", batching=" + batching +
+                ", batchCount=" + batchCount +
+                '}';
+    }
+
+    public static PerfSettings load(CommentedConfig config) {
+        boolean batching = config.getOrElse("batching", PerfDefaults.BATCHING);
+        int tileSize = Math.min(PerfDefaults.MAX_TILE_SIZE, Math.max(2, config.getInt("tile_size")));
+        int batchCount = Math.min(PerfDefaults.MAX_BATCH_COUNT, Math.max(1, config.getInt("batch_count")));
+        int threadCount = Math.min(PerfDefaults.MAX_THREAD_COUNT, Math.max(1, config.getInt("thread_count")));
+        return new PerfSettings(threadCount, tileSize, batching, batchCount);
+    }
+}
@@ -0,0 +1,191 @@
+package com.terraforged.mod.config;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.terraforged.mod.Log;
+import com.terraforged.mod.chunk.TerraChunkGenerator;
+import com.terraforged.mod.chunk.tile.GenerationExecutor;
+import com.terraforged.mod.chunk.tile.TileCacheFactory;
+import com.terraforged.mod.chunk.tile.TileProvider;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.gen.ChunkGenerator;
+import net.minecraft.world.server.ServerWorld;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.server.ServerLifecycleHooks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optionally adjusts the number of regions the shared {@link GenerationExecutor} generates at once, and the
+ * batch count that queued regions are generated with. Every sample interval the tuner compares the average
+ * server tick duration against the configured budget, and the time chunk generation spent blocked on the
+ * TileCache plus the backlog of queued regions against fixed thresholds, then steps the concurrency up or
+ * down by one within the configured bounds. Once the concurrency is at a bound the batch count is stepped
+ * instead (see TileCacheFactory#setQueueBatchCount).
+ *
+ * The engine's ThreadPool cannot be resized so its thread count is left alone, as are the TileCaches (and
+ * their generated tiles).
+ */
+@Mod.EventBusSubscriber(bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class PerfTuner {
+
+    // ticks between tuning decisions (~30s)
+    private static final int SAMPLE_INTERVAL = 600;
+    // average time (ms) a chunk may block waiting on tile generation before more threads are added
+    private static final float MAX_WAIT_MS = 2F;
+    // queued regions per generator thread above which more threads are added
+    private static final int MAX_QUEUE_PER_THREAD = 2;
+    // fraction of the tick budget that must be free before threads are added
+    private static final float GROW_HEADROOM = 0.8F;
+
+    private static boolean enabled = PerfDefaults.AUTOTUNE;
+    private static int minThreads = PerfDefaults.AUTOTUNE_MIN_THREADS;
+    private static int maxThreads = PerfDefaults.AUTOTUNE_MAX_THREADS;
+    private static int tickBudget = PerfDefaults.AUTOTUNE_TICK_BUDGET;
+    private static int maxBatchCount = PerfDefaults.AUTOTUNE_MAX_BATCH_COUNT;
+
+    private static int ticks = 0;
+    private static long tickStart = 0L;
+    private static long tickNanos = 0L;
+    private static long lastRequests = 0L;
+    private static long lastWaitNanos = 0L;
+
+    /**
+     * Applies the autotune settings & discards any partially collected sample
+     */
+    public static void configure(CommentedConfig config) {
+        enabled = config.getOrElse("autotune", PerfDefaults.AUTOTUNE);
+        minThreads = Math.max(1, config.getIntOrElse("autotune_min_threads", PerfDefaults.AUTOTUNE_MIN_THREADS));
+        maxThreads = Math.min(PerfDefaults.MAX_THREAD_COUNT, config.getIntOrElse("autotune_max_threads", PerfDefaults.AUTOTUNE_MAX_THREADS));
+        maxThreads = Math.max(minThreads, maxThreads);
+        tickBudget = Math.max(1, config.getIntOrElse("autotune_tick_budget", PerfDefaults.AUTOTUNE_TICK_BUDGET));
+        maxBatchCount = Math.min(PerfDefaults.MAX_BATCH_COUNT, config.getIntOrElse("autotune_max_batch_count", PerfDefaults.AUTOTUNE_MAX_BATCH_COUNT));
+        maxBatchCount = Math.max(1, maxBatchCount);
+        ticks = 0;
+        tickNanos = 0L;
+        lastRequests = -1L;
+        Log.debug("Autotune [enabled={}, threads={}-{}, max batch count={}, tick budget={}ms]", enabled, minThreads, maxThreads, maxBatchCount, tickBudget);
+    }
+
+    @SubscribeEvent
+    public static void tick(TickEvent.ServerTickEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        if (event.phase == TickEvent.Phase.START) {
+            tickStart = System.nanoTime();
+            return;
+        }
+
+        tickNanos += System.nanoTime() - tickStart;
+        if (++ticks < SAMPLE_INTERVAL) {
+            return;
+        }
+
+        float tickMs = (float) TimeUnit.NANOSECONDS.toMicros(tickNanos / ticks) / 1000F;
+        ticks = 0;
+        tickNanos = 0L;
+
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server != null) {
+            sample(server, tickMs);
+        }
+    }
+
+    private static void sample(MinecraftServer server, float tickMs) {
+        List<TerraChunkGenerator> generators = getGenerators(server);
+        if (generators.isEmpty()) {
+            return;
+        }
+
+        int queueDepth = 0;
+        long requests = 0L;
+        long waitNanos = 0L;
+        for (TerraChunkGenerator generator : generators) {
+            TileProvider provider = generator.getTileProvider();
+            queueDepth += provider.getQueueDepth();
+            requests += provider.getCacheRequests();
+            waitNanos += provider.getCacheWaitNanos();
+        }
+
+        // first sample after (re)configuring only establishes the baseline
+        if (lastRequests < 0) {
+            lastRequests = requests;
+            lastWaitNanos = waitNanos;
+            return;
+        }
+
+        long sampleRequests = Math.max(0, requests - lastRequests);
+        long sampleWait = Math.max(0, waitNanos - lastWaitNanos);
+        lastRequests = requests;
+        lastWaitNanos = waitNanos;
+
+        float waitMs = sampleRequests == 0 ? 0F : TimeUnit.NANOSECONDS.toMicros(sampleWait / sampleRequests) / 1000F;
+        float throughput = sampleRequests * 20F / SAMPLE_INTERVAL;
+
+        GenerationExecutor executor = GenerationExecutor.getInstance();
+        int current = executor.getConcurrency();
+        int batchCount = generators.get(0).getContext().cacheFactory.getQueueBatchCount();
+        int step = 0;
+        String reason = null;
+
+        if (tickMs > tickBudget) {
+            step = -1;
+            reason = "server tick over budget";
+        } else if (tickMs < tickBudget * GROW_HEADROOM) {
+            if (waitMs > MAX_WAIT_MS) {
+                step = 1;
+                reason = "chunks waiting on tile generation";
+            } else if (queueDepth > current * MAX_QUEUE_PER_THREAD) {
+                step = 1;
+                reason = "tile queue backlog";
+            }
+        }
+
+        if (reason == null) {
+            Log.debug("Autotune: holding threads={}, batch count={} [tick={}ms, wait={}ms, queue={}, chunks/s={}]",
+                    current, batchCount, tickMs, waitMs, queueDepth, throughput);
+            return;
+        }
+
+        // step the concurrency first, then the batch count once the concurrency has reached its bound
+        int threads = clamp(current + step, minThreads, maxThreads);
+        int batch = batchCount;
+        if (threads == current) {
+            batch = clamp(batchCount + step, 1, maxBatchCount);
+        }
+
+        if (threads == current && batch == batchCount) {
+            Log.debug("Autotune: {} but threads={} & batch count={} are at their limits", reason, threads, batch);
+            return;
+        }
+
+        Log.info("Autotune: {} [tick={}ms, wait={}ms, queue={}, chunks/s={}], threads {} -> {}, batch count {} -> {}",
+                reason, tickMs, waitMs, queueDepth, throughput, current, threads, batchCount, batch);
+
+        executor.setConcurrency(threads);
+        for (TerraChunkGenerator generator : generators) {
+            TileCacheFactory factory = generator.getContext().cacheFactory;
+            factory.setQueueBatchCount(batch);
+        }
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static List<TerraChunkGenerator> getGenerators(MinecraftServer server) {
+        List<TerraChunkGenerator> list = new ArrayList<>();
+        for (ServerWorld world : server.getWorlds()) {
+            ChunkGenerator<?> generator = world.getChunkProvider().getChunkGenerator();
+            if (generator instanceof TerraChunkGenerator) {
+                list.add((TerraChunkGenerator) generator);
+            }
+        }
+        return list;
+    }
+}
@@ -27,6 +27,7 @@ package com.terraforged.mod.server.command;
 
 import com.mojang.brigadier.Command;
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
@@ -34,10 +35,18 @@ import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
 import com.terraforged.core.cell.Cell;
 import com.terraforged.core.concurrent.Resource;
 import com.terraforged.mod.Log;
+import com.terraforged.mod.biome.provider.NoiseBiomeCache;
 import com.terraforged.mod.biome.provider.TerraBiomeProvider;
 import com.terraforged.mod.chunk.TerraChunkGenerator;
 import com.terraforged.mod.chunk.TerraContext;
 import com.terraforged.mod.chunk.settings.SettingsHelper;
+import com.terraforged.mod.chunk.tile.GenerationExecutor;
+import com.terraforged.mod.chunk.tile.GenerationQueue;
+import com.terraforged.mod.chunk.tile.ReaderTracker;
+import com.terraforged.mod.chunk.tile.TileCacheFactory;
+import com.terraforged.mod.chunk.tile.TileProvider;
+import com.terraforged.mod.config.PerfReloader;
+import com.terraforged.mod.config.PerfSettings;
 import com.terraforged.mod.data.DataGen;
 import com.terraforged.mod.server.command.arg.BiomeArgType;
 import com.terraforged.mod.server.command.arg.TerrainArgType;
@@ -125,6 +134,18 @@ public class TerraCommand {
                                 .executes(TerraCommand::setDefaults)))
                 .then(Commands.literal("debug")
                         .executes(TerraCommand::debugBiome))
+                .then(Commands.literal("perf")
+                        .then(Commands.literal("reload")
+                                .executes(TerraCommand::reloadPerf))
+                        .then(Commands.literal("queues")
+                                .executes(TerraCommand::queueStats))
+                        .then(Commands.literal("readers")
+                                .executes(TerraCommand::readerStats))
+                        .then(Commands.literal("biomes")
+                                .executes(TerraCommand::biomeStats))
+                        .then(Commands.literal("pregen")
+                                .then(Commands.argument("radius", IntegerArgumentType.integer(1, 1024))
+                                        .executes(TerraCommand::pregen))))
                 .then(Commands.literal("locate")
                         .then(Commands.literal("biome")
                                 .then(Commands.argument("biome", BiomeArgType.biome())
@@ -184,6 +205,135 @@ public class TerraCommand {
         return Command.SINGLE_SUCCESS;
     }
 
+    private static int reloadPerf(CommandContext<CommandSource> context) throws CommandSyntaxException {
+        TileCacheFactory factory = PerfReloader.reload(context.getSource().getServer());
+        if (factory == null) {
+            throw createException("Invalid world type", "No TerraForged worlds are loaded!");
+        }
+
+        // the thread count caps the regions in flight straight away, the pool itself is resized on restart
+        PerfSettings settings = factory.getRequested();
+        PerfSettings active = factory.getSettings();
+        context.getSource().sendFeedback(new StringTextComponent("Reloaded performance settings: Regions In Flight = ")
+                .appendSibling(createTitle(settings.threadCount))
+                .appendSibling(new StringTextComponent(", Batch Count = "))
+                .appendSibling(createTitle(settings.batchCount)), true);
+
+        context.getSource().sendFeedback(new StringTextComponent("Applied after a restart: Threads = ")
+                .appendSibling(createTitle(deferred(active.threadCount, settings.threadCount)))
+                .appendSibling(new StringTextComponent(", Tile Size = "))
+                .appendSibling(createTitle(deferred(active.tileSize, settings.tileSize)))
+                .appendSibling(new StringTextComponent(", Batching = "))
+                .appendSibling(createTitle(deferred(active.batching, settings.batching))), true);
+
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static String deferred(Object active, Object requested) {
+        if (active.equals(requested)) {
+            return String.valueOf(active);
+        }
+        return active + " -> " + requested;
+    }
+
+    private static int queueStats(CommandContext<CommandSource> context) throws CommandSyntaxException {
+        GenerationExecutor executor = GenerationExecutor.getInstance();
+        context.getSource().sendFeedback(new StringTextComponent("Tile generation: Running = ")
+                .appendSibling(createTitle(executor.getRunning() + "/" + executor.getConcurrency()))
+                .appendSibling(new StringTextComponent(", Blocking = "))
+                .appendSibling(createTitle(executor.getBlocking())), false);
+
+        for (GenerationQueue queue : executor.getQueues()) {
+            context.getSource().sendFeedback(new StringTextComponent(" - ")
+                    .appendSibling(createTitle(queue.getName()))
+                    .appendSibling(new StringTextComponent(": Queued = "))
+                    .appendSibling(createTitle(queue.getQueued()))
+                    .appendSibling(new StringTextComponent(", In Flight = "))
+                    .appendSibling(createTitle(queue.getInFlight()))
+                    .appendSibling(new StringTextComponent(", Completed = "))
+                    .appendSibling(createTitle(queue.getCompleted() + "/" + queue.getSubmitted()))
+                    .appendSibling(new StringTextComponent(", Cancelled = "))
+                    .appendSibling(createTitle(queue.getCancelled())), false);
+        }
+
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int readerStats(CommandContext<CommandSource> context) throws CommandSyntaxException {
+        ChunkGenerator<?> generator = getChunkGenerator(context);
+        if (!(generator instanceof TerraChunkGenerator)) {
+            throw createException("Invalid world type", "This command can only be run in a TerraForged world!");
+        }
+
+        ReaderTracker tracker = ((TerraChunkGenerator) generator).getTileProvider().getReaderTracker();
+        if (tracker == null) {
+            throw createException("Reader tracking disabled", "Set reader_ttl in performance.conf to enable it");
+        }
+
+        context.getSource().sendFeedback(new StringTextComponent("Chunk readers: Pinned Regions = ")
+                .appendSibling(createTitle(tracker.getPinnedRegions()))
+                .appendSibling(new StringTextComponent(", Open Readers = "))
+                .appendSibling(createTitle(tracker.getOpenReaders()))
+                .appendSibling(new StringTextComponent(", Leaks = "))
+                .appendSibling(createTitle(tracker.getLeaks()))
+                .appendSibling(new StringTextComponent(", Reclaimed = "))
+                .appendSibling(createTitle(tracker.getReclaimed())), false);
+
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int biomeStats(CommandContext<CommandSource> context) throws CommandSyntaxException {
+        ChunkGenerator<?> generator = getChunkGenerator(context);
+        if (!(generator instanceof TerraChunkGenerator)) {
+            throw createException("Invalid world type", "This command can only be run in a TerraForged world!");
+        }
+
+        NoiseBiomeCache cache = ((TerraChunkGenerator) generator).getBiomeProvider().getNoiseBiomes();
+        context.getSource().sendFeedback(new StringTextComponent("Noise biomes: Regions = ")
+                .appendSibling(createTitle(cache.getSize()))
+                .appendSibling(new StringTextComponent(", Hits = "))
+                .appendSibling(createTitle(cache.getHits()))
+                .appendSibling(new StringTextComponent(", Misses = "))
+                .appendSibling(createTitle(cache.getMisses()))
+                .appendSibling(new StringTextComponent(", Hit Rate = "))
+                .appendSibling(createTitle(String.format("%.1f%%", cache.getHitRate() * 100F))), false);
+
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int pregen(CommandContext<CommandSource> context) throws CommandSyntaxException {
+        ChunkGenerator<?> generator = getChunkGenerator(context);
+        if (!(generator instanceof TerraChunkGenerator)) {
+            throw createException("Invalid world type", "This command can only be run in a TerraForged world!");
+        }
+
+        TileProvider provider = ((TerraChunkGenerator) generator).getTileProvider();
+        BlockPos pos = new BlockPos(context.getSource().getPos());
+        int radius = IntegerArgumentType.getInteger(context, "radius");
+        int chunkX = pos.getX() >> 4;
+        int chunkZ = pos.getZ() >> 4;
+        int minX = provider.chunkToRegion(chunkX - radius);
+        int minZ = provider.chunkToRegion(chunkZ - radius);
+        int maxX = provider.chunkToRegion(chunkX + radius);
+        int maxZ = provider.chunkToRegion(chunkZ + radius);
+
+        int count = 0;
+        for (int rz = minZ; rz <= maxZ; rz++) {
+            for (int rx = minX; rx <= maxX; rx++) {
+                if (!provider.isRetained(rx, rz)) {
+                    provider.queueRegion(rx, rz, GenerationQueue.Priority.BACKGROUND);
+                    count++;
+                }
+            }
+        }
+
+        context.getSource().sendFeedback(new StringTextComponent("Queued ")
+                .appendSibling(createTitle(count))
+                .appendSibling(new StringTextComponent(" heightmap regions for pre-generation")), true);
+
+        return Command.SINGLE_SUCCESS;
+    }
+
     private static int debugBiome(CommandContext<CommandSource> context) throws CommandSyntaxException {
         ServerPlayerEntity player = context.getSource().asPlayer();
         BlockPos position = player.getPosition();
@@ -2,6 +2,7 @@ package com.terraforged.mod.server.command.search;
 
 import com.terraforged.core.cell.Cell;
 import com.terraforged.mod.biome.provider.TerraBiomeProvider;
+import com.terraforged.mod.chunk.tile.lod.LodLevel;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.biome.Biome;
 import net.minecraft.world.gen.ChunkGenerator;
@@ -9,6 +10,7 @@ import net.minecraft.world.gen.ChunkGenerator;
 public class BiomeSearchTask extends ChunkGeneratorSearch {
 
     private final Biome biome;
+    private final LodLevel lod;
     private final TerraBiomeProvider biomeProvider;
 
     private final Cell cell = new Cell();
@@ -17,6 +19,7 @@ public class BiomeSearchTask extends ChunkGeneratorSearch {
         super(center, generator);
         this.biomeProvider = biomeProvider;
         this.biome = biome;
+        this.lod = LodLevel.forSpacing(getSpacing());
     }
 
     @Override
@@ -26,6 +29,10 @@ public class BiomeSearchTask extends ChunkGeneratorSearch {
 
     @Override
     public boolean test(BlockPos pos) {
+        // rule the position out using the cached low resolution tiles before sampling it exactly
+        if (lod != null && !biomeProvider.getLodCache().mayHaveBiome(lod, pos.getX(), pos.getZ(), biome)) {
+            return false;
+        }
         biomeProvider.getWorldLookup().applyCell(cell, pos.getX(), pos.getZ());
         if (biomeProvider.getBiome(cell, pos.getX(), pos.getZ()) == biome) {
             return biomeProvider.getBiome(pos.getX(), pos.getZ()) == biome;
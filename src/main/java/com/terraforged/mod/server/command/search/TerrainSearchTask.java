@@ -1,6 +1,9 @@
 package com.terraforged.mod.server.command.search;
 
 import com.terraforged.core.cell.Cell;
+import com.terraforged.mod.chunk.TerraChunkGenerator;
+import com.terraforged.mod.chunk.tile.ChunkSummary;
+import com.terraforged.mod.chunk.tile.lod.LodLevel;
 import com.terraforged.world.WorldGenerator;
 import com.terraforged.world.terrain.Terrain;
 import net.minecraft.util.math.BlockPos;
@@ -10,12 +13,16 @@ public class TerrainSearchTask extends ChunkGeneratorSearch {
 
     private final Terrain type;
     private final WorldGenerator worldGenerator;
+    private final TerraChunkGenerator terraGenerator;
+    private final LodLevel lod;
     private final Cell cell = new Cell();
 
     public TerrainSearchTask(BlockPos center, Terrain type, ChunkGenerator<?> chunkGenerator, WorldGenerator worldGenerator) {
         super(center, 256, chunkGenerator);
         this.type = type;
         this.worldGenerator = worldGenerator;
+        this.terraGenerator = chunkGenerator instanceof TerraChunkGenerator ? (TerraChunkGenerator) chunkGenerator : null;
+        this.lod = LodLevel.forSpacing(getSpacing());
     }
 
     @Override
@@ -25,6 +32,17 @@ public class TerrainSearchTask extends ChunkGeneratorSearch {
 
     @Override
     public boolean test(BlockPos pos) {
+        // chunks that have already been generated can be ruled out without sampling the heightmap
+        if (terraGenerator != null) {
+            ChunkSummary summary = terraGenerator.getChunkSummary(pos.getX() >> 4, pos.getZ() >> 4);
+            if (summary != null && !summary.hasTerrain(type)) {
+                return false;
+            }
+            // otherwise use the cached low resolution tiles
+            if (lod != null && !terraGenerator.getBiomeProvider().getLodCache().mayHaveTerrain(lod, pos.getX(), pos.getZ(), type)) {
+                return false;
+            }
+        }
         worldGenerator.getHeightmap().apply(cell, pos.getX(), pos.getZ());
         return cell.terrain == type;
     }
@@ -42,8 +42,22 @@ import java.util.List;
 
 public class SetupHooks {
 
+    private static volatile boolean terrainHooks = false;
+
+    /**
+     * Returns true if another mod has modified a TerrainProvider, in which case heightmaps can only be
+     * reproduced by a generator set up within the game
+     */
+    public static boolean hasTerrainHooks() {
+        return terrainHooks;
+    }
+
     public static <T extends TerrainProvider> T setup(T provider, GeneratorContext context) {
-        MinecraftForge.EVENT_BUS.post(new SetupEvent.Terrain(provider, context));
+        SetupEvent.Terrain event = new SetupEvent.Terrain(provider, context);
+        MinecraftForge.EVENT_BUS.post(event);
+        if (event.isAccessed()) {
+            terrainHooks = true;
+        }
         return provider;
     }
 